@@ -3,9 +3,11 @@ package ru.practicum.shareit;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan("ru.practicum.shareit")
+@EnableScheduling
 public class ShareItApp {
 
 	public static void main(String[] args) {
@@ -0,0 +1,194 @@
+package ru.practicum.shareit.analytics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingAnalyticsDto;
+import ru.practicum.shareit.booking.dto.ItemMonthUtilizationDto;
+import ru.practicum.shareit.exception.ValidationException;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Component
+@Slf4j
+public class BookingAnalyticsEngine implements ApplicationRunner {
+    private static final byte APPROVED = (byte) BookingStatus.APPROVED.ordinal();
+    private static final byte REJECTED = (byte) BookingStatus.REJECTED.ordinal();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxMonths;
+    private final int parallelThreshold;
+    private volatile BookingColumns columns = BookingColumns.EMPTY;
+
+    public BookingAnalyticsEngine(DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${shareit.analytics.fetch-size:1000}") int fetchSize,
+                                  @Value("${shareit.analytics.max-months:24}") int maxMonths,
+                                  @Value("${shareit.analytics.parallel-threshold:10000}") int parallelThreshold,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxMonths = maxMonths;
+        this.parallelThreshold = parallelThreshold;
+        Gauge.builder("shareit.analytics.snapshot.size", this, engine -> engine.columns.size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.analytics.refresh-interval:PT5M}",
+            initialDelayString = "${shareit.analytics.refresh-interval:PT5M}")
+    public void refresh() {
+        long started = System.nanoTime();
+        BookingColumns.Builder builder = new BookingColumns.Builder();
+        LocalDateTime takenAt = LocalDateTime.now();
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                "SELECT i.owner_id, b.item_id, b.start_date, b.end_date, b.created, b.status FROM bookings b " +
+                        "JOIN items i ON i.id = b.item_id AND i.deleted = false " +
+                        "JOIN users u ON u.id = b.booker_id AND u.deleted = false " +
+                        "ORDER BY i.owner_id, b.item_id, b.start_date",
+                rs -> {
+                    Timestamp created = rs.getTimestamp(5);
+                    builder.add(rs.getLong(1), rs.getLong(2),
+                            seconds(rs.getTimestamp(3).toLocalDateTime()),
+                            seconds(rs.getTimestamp(4).toLocalDateTime()),
+                            created == null ? BookingColumns.UNKNOWN : seconds(created.toLocalDateTime()),
+                            (byte) BookingStatus.valueOf(rs.getString(6)).ordinal());
+                }));
+        columns = builder.build(takenAt);
+        log.info("Снимок бронирований для аналитики обновлён: {} записей, {} мс",
+                columns.size, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public BookingAnalyticsDto analyze(Long ownerId, YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new ValidationException("Начальный месяц не может быть позже конечного");
+        }
+        int months = (int) from.until(to, ChronoUnit.MONTHS) + 1;
+        if (months > maxMonths) {
+            throw new ValidationException("Период аналитики не может превышать " + maxMonths + " месяцев");
+        }
+
+        BookingColumns snapshot = columns;
+        long[] bounds = new long[months + 1];
+        for (int m = 0; m <= months; m++) {
+            bounds[m] = seconds(from.plusMonths(m).atDay(1).atStartOfDay());
+        }
+
+        int low = snapshot.lowerBound(ownerId);
+        int high = snapshot.lowerBound(ownerId + 1);
+        List<int[]> itemRanges = new ArrayList<>();
+        for (int i = low; i < high; i++) {
+            if (i == low || snapshot.itemIds[i] != snapshot.itemIds[i - 1]) {
+                itemRanges.add(new int[]{i, i + 1});
+            } else {
+                itemRanges.get(itemRanges.size() - 1)[1] = i + 1;
+            }
+        }
+
+        IntStream scan = IntStream.range(0, itemRanges.size());
+        if (high - low >= parallelThreshold) {
+            scan = scan.parallel();
+        }
+        List<ItemMonthUtilizationDto> items = scan
+                .mapToObj(r -> scanItem(snapshot, itemRanges.get(r), bounds, from))
+                .flatMap(List::stream)
+                .toList();
+
+        return BookingAnalyticsDto.builder()
+                .snapshotAt(snapshot.takenAt)
+                .from(from)
+                .to(to)
+                .items(items)
+                .build();
+    }
+
+    private List<ItemMonthUtilizationDto> scanItem(BookingColumns snapshot, int[] range, long[] bounds,
+                                                   YearMonth from) {
+        int months = bounds.length - 1;
+        long[] occupied = new long[months];
+        int[] bookings = new int[months];
+        int[] rejected = new int[months];
+        int[] decided = new int[months];
+        long[] leadSeconds = new long[months];
+        int[] leadCount = new int[months];
+
+        for (int i = range[0]; i < range[1]; i++) {
+            long start = snapshot.starts[i];
+            long end = snapshot.ends[i];
+            byte status = snapshot.statuses[i];
+            int month = monthOf(bounds, start);
+            if (month >= 0 && month < months) {
+                bookings[month]++;
+                if (status == REJECTED) {
+                    rejected[month]++;
+                }
+                if (status == APPROVED || status == REJECTED) {
+                    decided[month]++;
+                }
+                if (snapshot.created[i] != BookingColumns.UNKNOWN) {
+                    leadSeconds[month] += Math.max(0, start - snapshot.created[i]);
+                    leadCount[month]++;
+                }
+            }
+            if (status == APPROVED) {
+                for (int m = Math.max(0, month); m < months && bounds[m] < end; m++) {
+                    long overlap = Math.min(end, bounds[m + 1]) - Math.max(start, bounds[m]);
+                    if (overlap > 0) {
+                        occupied[m] += overlap;
+                    }
+                }
+            }
+        }
+
+        List<ItemMonthUtilizationDto> result = new ArrayList<>();
+        for (int m = 0; m < months; m++) {
+            if (bookings[m] == 0 && occupied[m] == 0) {
+                continue;
+            }
+            result.add(ItemMonthUtilizationDto.builder()
+                    .itemId(snapshot.itemIds[range[0]])
+                    .month(from.plusMonths(m))
+                    .utilization(Math.min(1.0, (double) occupied[m] / (bounds[m + 1] - bounds[m])))
+                    .bookings(bookings[m])
+                    .rejected(rejected[m])
+                    .rejectionRate(decided[m] == 0 ? 0 : (double) rejected[m] / decided[m])
+                    .averageLeadTimeHours(leadCount[m] == 0 ? null : leadSeconds[m] / 3600.0 / leadCount[m])
+                    .build());
+        }
+        return result;
+    }
+
+    private static int monthOf(long[] bounds, long instant) {
+        int index = Arrays.binarySearch(bounds, instant);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static long seconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.analytics;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+final class BookingColumns {
+    static final long UNKNOWN = Long.MIN_VALUE;
+    static final BookingColumns EMPTY = new Builder().build(null);
+
+    final long[] ownerIds;
+    final long[] itemIds;
+    final long[] starts;
+    final long[] ends;
+    final long[] created;
+    final byte[] statuses;
+    final int size;
+    final LocalDateTime takenAt;
+
+    private BookingColumns(Builder builder, LocalDateTime takenAt) {
+        this.size = builder.size;
+        this.ownerIds = Arrays.copyOf(builder.ownerIds, size);
+        this.itemIds = Arrays.copyOf(builder.itemIds, size);
+        this.starts = Arrays.copyOf(builder.starts, size);
+        this.ends = Arrays.copyOf(builder.ends, size);
+        this.created = Arrays.copyOf(builder.created, size);
+        this.statuses = Arrays.copyOf(builder.statuses, size);
+        this.takenAt = takenAt;
+    }
+
+    int lowerBound(long ownerId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ownerIds[middle] < ownerId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    static final class Builder {
+        private long[] ownerIds = new long[1024];
+        private long[] itemIds = new long[1024];
+        private long[] starts = new long[1024];
+        private long[] ends = new long[1024];
+        private long[] created = new long[1024];
+        private byte[] statuses = new byte[1024];
+        private int size;
+
+        void add(long ownerId, long itemId, long start, long end, long createdAt, byte status) {
+            if (size == ownerIds.length) {
+                int capacity = size * 2;
+                ownerIds = Arrays.copyOf(ownerIds, capacity);
+                itemIds = Arrays.copyOf(itemIds, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                created = Arrays.copyOf(created, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+            }
+            ownerIds[size] = ownerId;
+            itemIds[size] = itemId;
+            starts[size] = start;
+            ends[size] = end;
+            created[size] = createdAt;
+            statuses[size] = status;
+            size++;
+        }
+
+        BookingColumns build(LocalDateTime takenAt) {
+            return new BookingColumns(this, takenAt);
+        }
+    }
+}
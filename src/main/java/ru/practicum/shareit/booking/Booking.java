@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
@@ -14,6 +15,8 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@SQLRestriction("NOT EXISTS (SELECT 1 FROM items i WHERE i.id = item_id AND i.deleted = true) " +
+        "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = booker_id AND u.deleted = true)")
 @Table(name = "bookings")
 public class Booking {
     @Id
@@ -38,6 +41,9 @@ public class Booking {
     @Column(nullable = false, length = 20)
     private BookingStatus status;
 
+    @Column(updatable = false)
+    private LocalDateTime created;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -2,10 +2,18 @@ package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.analytics.BookingAnalyticsEngine;
+import ru.practicum.shareit.booking.dto.BookingAnalyticsDto;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStateSummaryDto;
+import ru.practicum.shareit.common.FieldSet;
+import ru.practicum.shareit.idempotency.IdempotencyService;
 
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -13,12 +21,26 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
+    private final BookingAnalyticsEngine bookingAnalyticsEngine;
 
     @PostMapping
     public BookingResponseDto createBooking(
             @Valid @RequestBody BookingDto bookingDto,
-            @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.createBooking(bookingDto, userId);
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, userId, "createBooking", bookingDto,
+                BookingResponseDto.class, () -> bookingService.createBooking(bookingDto, userId));
+    }
+
+    @PostMapping("/batch")
+    public List<BookingResponseDto> createBookings(
+            @Valid @RequestBody BookingBatchDto batchDto,
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return List.of(idempotencyService.execute(idempotencyKey, userId, "createBookings", batchDto,
+                BookingResponseDto[].class,
+                () -> bookingService.createBookings(batchDto, userId).toArray(BookingResponseDto[]::new)));
     }
 
     @PatchMapping("/{bookingId}")
@@ -36,21 +58,54 @@ public class BookingController {
         return bookingService.getBookingById(bookingId, userId);
     }
 
+    @GetMapping(params = "ids")
+    public List<BookingResponseDto> getBookingsByIds(
+            @RequestParam List<Long> ids,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getBookingsByIds(ids, userId);
+    }
+
     @GetMapping
-    public List<BookingResponseDto> getUserBookings(
+    public List<?> getUserBookings(
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") int from,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
             @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.getUserBookings(userId, state, from, size);
+        if (fields == null) {
+            return bookingService.getUserBookings(userId, state, from, size);
+        }
+        return bookingService.getUserBookings(userId, state, from, size,
+                FieldSet.parse(fields, BookingMapper.VIEW_FIELDS));
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getOwnerBookings(
+    public List<?> getOwnerBookings(
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") int from,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        if (fields == null) {
+            return bookingService.getOwnerBookings(userId, state, from, size);
+        }
+        return bookingService.getOwnerBookings(userId, state, from, size,
+                FieldSet.parse(fields, BookingMapper.VIEW_FIELDS));
+    }
+
+    @GetMapping("/owner/summary")
+    public List<BookingStateSummaryDto> getOwnerSummary(
+            @RequestParam(defaultValue = "3") int limit,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getOwnerSummary(userId, limit);
+    }
+
+    @GetMapping("/owner/analytics")
+    public BookingAnalyticsDto getOwnerAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
             @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.getOwnerBookings(userId, state, from, size);
+        YearMonth end = to == null ? YearMonth.now() : to;
+        return bookingAnalyticsEngine.analyze(userId, from == null ? end.minusMonths(11) : from, end);
     }
 }
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.shard.ShardContext;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@Slf4j
+public class BookingExpiryJob {
+    private final BookingRepository bookingRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int maxChunks;
+    private final Counter expired;
+
+    public BookingExpiryJob(BookingRepository bookingRepository,
+                            ShardRouter shardRouter,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${shareit.booking.expiry.chunk-size:500}") int chunkSize,
+                            @Value("${shareit.booking.expiry.max-chunks:20}") int maxChunks,
+                            MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.shardRouter = shardRouter;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+        this.expired = Counter.builder("shareit.booking.expired")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.expiry.interval:PT5M}",
+            initialDelayString = "${shareit.booking.expiry.initial-delay:PT1M}")
+    public void expireStaleWaiting() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (ShardContext.Scope ignored = ShardContext.open(shard)) {
+                total += expireOnCurrentShard(now);
+            }
+        }
+        if (total > 0) {
+            expired.increment(total);
+            log.info("Отменено {} неподтверждённых бронирований с истёкшим началом", total);
+        }
+    }
+
+    private int expireOnCurrentShard(LocalDateTime now) {
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            Integer cancelled = chunkTransaction.execute(status -> cancelChunk(now));
+            if (cancelled == null || cancelled == 0) {
+                break;
+            }
+            total += cancelled;
+            if (cancelled < chunkSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int cancelChunk(LocalDateTime now) {
+        List<Long> ids = bookingRepository.lockStaleWaitingIds(now, chunkSize);
+        return ids.isEmpty() ? 0 : bookingRepository.cancelWaiting(ids);
+    }
+}
@@ -4,19 +4,27 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.common.FieldSet;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Mapper(componentModel = "spring")
 public interface BookingMapper {
+    Set<String> VIEW_FIELDS = Set.of("id", "start", "end", "status", "booker", "item");
+    Set<String> ROW_FIELDS = Set.of("id", "start", "end", "status");
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "booker", ignore = true)
     @Mapping(target = "item", ignore = true)
+    @Mapping(target = "created", ignore = true)
     Booking toEntity(BookingDto bookingDto);
 
     @Mapping(target = "booker", source = "booker")
@@ -25,6 +33,38 @@ public interface BookingMapper {
 
     List<BookingResponseDto> toDtoList(List<Booking> bookings);
 
+    default Map<String, Object> toView(Booking booking, FieldSet fields) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        if (fields.contains("id")) view.put("id", booking.getId());
+        if (fields.contains("start")) view.put("start", booking.getStart());
+        if (fields.contains("end")) view.put("end", booking.getEnd());
+        if (fields.contains("status")) view.put("status", booking.getStatus());
+        if (fields.contains("booker")) view.put("booker", mapUser(booking.getBooker()));
+        if (fields.contains("item")) view.put("item", mapItem(booking.getItem()));
+        return view;
+    }
+
+    default List<Map<String, Object>> toViewList(List<Booking> bookings, FieldSet fields) {
+        return bookings.stream()
+                .map(booking -> toView(booking, fields))
+                .toList();
+    }
+
+    default Map<String, Object> toView(BookingRow row, FieldSet fields) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        if (fields.contains("id")) view.put("id", row.getId());
+        if (fields.contains("start")) view.put("start", row.getStart());
+        if (fields.contains("end")) view.put("end", row.getEnd());
+        if (fields.contains("status")) view.put("status", row.getStatus());
+        return view;
+    }
+
+    default List<Map<String, Object>> toRowViewList(List<BookingRow> rows, FieldSet fields) {
+        return rows.stream()
+                .map(row -> toView(row, fields))
+                .toList();
+    }
+
     default UserDto mapUser(User user) {
         if (user == null) return null;
         return new UserDto(user.getId(), user.getName(), user.getEmail());
@@ -2,25 +2,31 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
+    <T> List<T> findByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable, Class<T> type);
 
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status, Pageable pageable);
+    <T> List<T> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status, Pageable pageable,
+                                                         Class<T> type);
 
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long bookerId, LocalDateTime start,
-                                                                          LocalDateTime end, Pageable pageable);
+    <T> List<T> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long bookerId, LocalDateTime start,
+                                                                        LocalDateTime end, Pageable pageable,
+                                                                        Class<T> type);
 
-    List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime end, Pageable pageable);
+    <T> List<T> findByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime end, Pageable pageable,
+                                                           Class<T> type);
 
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime start, Pageable pageable);
+    <T> List<T> findByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime start, Pageable pageable,
+                                                            Class<T> type);
 
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long ownerId, Pageable pageable);
+    <T> List<T> findByItemOwnerIdOrderByStartDesc(Long ownerId, Pageable pageable, Class<T> type);
 
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.id = :itemId " +
@@ -39,15 +45,98 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     Booking findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(Long itemId, LocalDateTime now,
                                                                    BookingStatus status);
 
-    List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-            Long ownerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = :status " +
+            "AND b.start = (SELECT MAX(b2.start) FROM Booking b2 " +
+            "WHERE b2.item.id = b.item.id AND b2.status = :status AND b2.start < :now)")
+    List<Booking> findLastBookingsForItems(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("status") BookingStatus status);
+
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = :status " +
+            "AND b.start = (SELECT MIN(b2.start) FROM Booking b2 " +
+            "WHERE b2.item.id = b.item.id AND b2.status = :status AND b2.start > :now)")
+    List<Booking> findNextBookingsForItems(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("status") BookingStatus status);
+
+    @Query("SELECT DISTINCT b.item.id FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "AND b.start < :end AND b.end > :start")
+    List<Long> findItemIdsWithApprovedOverlap(@Param("itemIds") Collection<Long> itemIds,
+                                              @Param("start") LocalDateTime start,
+                                              @Param("end") LocalDateTime end);
+
+    <T> List<T> findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(
+            Long ownerId, LocalDateTime start, LocalDateTime end, Pageable pageable, Class<T> type);
+
+    <T> List<T> findByItemOwnerIdAndEndBeforeOrderByStartDesc(
+            Long ownerId, LocalDateTime end, Pageable pageable, Class<T> type);
+
+    <T> List<T> findByItemOwnerIdAndStartAfterOrderByStartDesc(
+            Long ownerId, LocalDateTime start, Pageable pageable, Class<T> type);
+
+    <T> List<T> findByItemOwnerIdAndStatusOrderByStartDesc(
+            Long ownerId, BookingStatus status, Pageable pageable, Class<T> type);
+
+    @Query(value = "SELECT id FROM bookings " +
+            "WHERE status = 'WAITING' AND start_date < :now " +
+            "ORDER BY id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockStaleWaitingIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.BookingStatus.CANCELED " +
+            "WHERE b.id IN :ids AND b.status = ru.practicum.shareit.booking.BookingStatus.WAITING")
+    int cancelWaiting(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM bookings WHERE id IN " +
+            "(SELECT id FROM bookings WHERE item_id = :itemId ORDER BY id LIMIT :limit)",
+            nativeQuery = true)
+    int purgeChunkByItemId(@Param("itemId") Long itemId, @Param("limit") int limit);
 
-    List<Booking> findByItemOwnerIdAndEndBeforeOrderByStartDesc(
-            Long ownerId, LocalDateTime end, Pageable pageable);
+    @Modifying
+    @Query(value = "DELETE FROM bookings WHERE id IN " +
+            "(SELECT id FROM bookings WHERE booker_id = :bookerId ORDER BY id LIMIT :limit)",
+            nativeQuery = true)
+    int purgeChunkByBookerId(@Param("bookerId") Long bookerId, @Param("limit") int limit);
 
-    List<Booking> findByItemOwnerIdAndStartAfterOrderByStartDesc(
-            Long ownerId, LocalDateTime start, Pageable pageable);
+    @Query("SELECT COUNT(b) AS total, " +
+            "SUM(CASE WHEN b.start < :now AND b.end > :now THEN 1 ELSE 0 END) AS current, " +
+            "SUM(CASE WHEN b.end < :now THEN 1 ELSE 0 END) AS past, " +
+            "SUM(CASE WHEN b.start > :now THEN 1 ELSE 0 END) AS future, " +
+            "SUM(CASE WHEN b.status = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "THEN 1 ELSE 0 END) AS waiting, " +
+            "SUM(CASE WHEN b.status = ru.practicum.shareit.booking.BookingStatus.REJECTED " +
+            "THEN 1 ELSE 0 END) AS rejected " +
+            "FROM Booking b " +
+            "WHERE b.item.owner.id = :ownerId")
+    OwnerBookingCounts countOwnerBookingsByState(@Param("ownerId") Long ownerId,
+                                                 @Param("now") LocalDateTime now);
 
-    List<Booking> findByItemOwnerIdAndStatusOrderByStartDesc(
-            Long ownerId, BookingStatus status, Pageable pageable);
+    @Query(value = "SELECT ranked.id AS id, ranked.state AS state FROM (" +
+            "SELECT b.id AS id, s.state AS state, " +
+            "ROW_NUMBER() OVER (PARTITION BY s.state ORDER BY b.start_date DESC, b.id DESC) AS rn " +
+            "FROM bookings b " +
+            "JOIN items i ON i.id = b.item_id " +
+            "JOIN (SELECT 'ALL' AS state UNION ALL SELECT 'CURRENT' UNION ALL SELECT 'PAST' " +
+            "UNION ALL SELECT 'FUTURE' UNION ALL SELECT 'WAITING' UNION ALL SELECT 'REJECTED') s " +
+            "ON s.state = 'ALL' " +
+            "OR (s.state = 'CURRENT' AND b.start_date < :now AND b.end_date > :now) " +
+            "OR (s.state = 'PAST' AND b.end_date < :now) " +
+            "OR (s.state = 'FUTURE' AND b.start_date > :now) " +
+            "OR s.state = b.status " +
+            "WHERE i.owner_id = :ownerId AND i.deleted = false " +
+            "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = b.booker_id AND u.deleted = true)) ranked " +
+            "WHERE ranked.rn <= :limit",
+            nativeQuery = true)
+    List<OwnerBookingStateRow> findTopOwnerBookingsByState(@Param("ownerId") Long ownerId,
+                                                           @Param("now") LocalDateTime now,
+                                                           @Param("limit") int limit);
 }
@@ -1,18 +1,32 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStateSummaryDto;
+import ru.practicum.shareit.common.FieldSet;
 
 import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
     BookingResponseDto createBooking(BookingDto bookingDto, Long bookerId);
 
+    List<BookingResponseDto> createBookings(BookingBatchDto batchDto, Long bookerId);
+
     BookingResponseDto approveBooking(Long bookingId, Long ownerId, boolean approved);
 
     BookingResponseDto getBookingById(Long bookingId, Long userId);
 
+    List<BookingResponseDto> getBookingsByIds(List<Long> bookingIds, Long userId);
+
     List<BookingResponseDto> getUserBookings(Long bookerId, String state, int from, int size);
 
     List<BookingResponseDto> getOwnerBookings(Long ownerId, String state, int from, int size);
+
+    List<Map<String, Object>> getUserBookings(Long bookerId, String state, int from, int size, FieldSet fields);
+
+    List<Map<String, Object>> getOwnerBookings(Long ownerId, String state, int from, int size, FieldSet fields);
+
+    List<BookingStateSummaryDto> getOwnerSummary(Long ownerId, int limit);
 }
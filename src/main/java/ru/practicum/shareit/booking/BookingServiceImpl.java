@@ -1,129 +1,236 @@
 package ru.practicum.shareit.booking;
 
 
-import jakarta.validation.ValidationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStateSummaryDto;
+import ru.practicum.shareit.common.BatchIds;
+import ru.practicum.shareit.common.FieldSet;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnavailableItemException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemTrendingTracker;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.shard.ShardContext;
+import ru.practicum.shareit.shard.ShardRouter;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final Comparator<Ranked<?>> RANKED_ORDER = Comparator.comparing(
+                    (Ranked<?> ranked) -> ranked.start(), Comparator.reverseOrder())
+            .thenComparing(Ranked::id, Comparator.reverseOrder());
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
+    private final ItemTrendingTracker trendingTracker;
+    private final ShardRouter shardRouter;
+    private final BookingBatchRepository bookingBatchRepository;
+
+    @Value("${shareit.batch.max-ids:100}")
+    private int maxBatchIds;
+
+    @Value("${shareit.booking.batch.max-items:30}")
+    private int maxBatchItems;
+
+    @Value("${shareit.booking.summary.max-limit:20}")
+    private int maxSummaryLimit;
 
     @Override
-    @Transactional
+    @Transactional(timeoutString = "${shareit.timeout.booking-write:5}")
     public BookingResponseDto createBooking(BookingDto bookingDto, Long bookerId) {
-        log.info("Создание бронирования для вещи ID {} пользователем ID {}", bookingDto.getItemId(), bookerId);
-        User booker = userRepository.findById(bookerId)
-                .orElseThrow(() -> {
-                    log.error("При создании бронирования пользователь с ID {} не найден", bookerId);
-                    return new NotFoundException("Пользователь не найден");
-                });
-        Item item = itemRepository.findById(bookingDto.getItemId())
-                .orElseThrow(() -> {
-                    log.error("Вещь с ID {} не найдена", bookingDto.getItemId());
-                    return new NotFoundException("Вещь не найдена");
-                });
-
-        if (!item.getAvailable()) {
-            log.warn("Попытка забронировать недоступную вещь ID {}", item.getId());
-            throw new UnavailableItemException("Вещь недоступна для бронирования");
+        try (ShardContext.Scope ignored = shardRouter.forId(bookingDto.getItemId())) {
+            log.info("Создание бронирования для вещи ID {} пользователем ID {}", bookingDto.getItemId(), bookerId);
+            User booker = userRepository.findById(bookerId)
+                    .orElseThrow(() -> NotFoundException.USER_NOT_FOUND);
+            Item item = itemRepository.findById(bookingDto.getItemId())
+                    .orElseThrow(() -> NotFoundException.ITEM_NOT_FOUND);
+
+            if (!item.getAvailable()) {
+                throw new UnavailableItemException("Вещь недоступна для бронирования");
+            }
+            if (bookerId.equals(item.getOwner().getId())) {
+                throw new NotFoundException("Владелец не может бронировать свою вещь");
+            }
+            if (bookingDto.getEnd().isBefore(bookingDto.getStart())) {
+                throw new ConflictException("Дата окончания бронирования не может быть раньше даты начала");
+            }
+
+            Booking booking = bookingMapper.toEntity(bookingDto);
+            booking.setBooker(booker);
+            booking.setItem(item);
+            booking.setStatus(BookingStatus.WAITING);
+            booking.setCreated(LocalDateTime.now());
+
+            Booking savedBooking = bookingRepository.save(booking);
+            log.info("Бронирование ID {} успешно создано для вещи ID {}", savedBooking.getId(), item.getId());
+            trendingTracker.recordBooking(item.getId());
+
+            return bookingMapper.toDto(savedBooking);
         }
-        if (bookerId.equals(item.getOwner().getId())) {
-            log.warn("Попытка владельца ID {} забронировать свою вещь ID {}", bookerId, item.getId());
-            throw new NotFoundException("Владелец не может бронировать свою вещь");
+    }
+
+    @Override
+    @Transactional(timeoutString = "${shareit.timeout.booking-write:5}")
+    public List<BookingResponseDto> createBookings(BookingBatchDto batchDto, Long bookerId) {
+        List<Long> itemIds = BatchIds.normalize(batchDto.getItemIds(), maxBatchItems);
+        log.info("Пакетное бронирование {} вещей пользователем ID {}", itemIds.size(), bookerId);
+        if (!batchDto.getEnd().isAfter(batchDto.getStart())) {
+            throw new ConflictException("Дата окончания бронирования должна быть позже даты начала");
         }
-        if (bookingDto.getEnd().isBefore(bookingDto.getStart())) {
-            log.warn("Некорректные даты бронирования: окончание {} раньше начала {}",
-                    bookingDto.getEnd(), bookingDto.getStart());
-            throw new ConflictException("Дата окончания бронирования не может быть раньше даты начала");
+        int shard = shardRouter.shardForId(itemIds.get(0));
+        if (itemIds.stream().anyMatch(itemId -> shardRouter.shardForId(itemId) != shard)) {
+            throw new ValidationException("Пакетное бронирование вещей разных шардов не поддерживается");
         }
 
-        Booking booking = bookingMapper.toEntity(bookingDto);
-        booking.setBooker(booker);
-        booking.setItem(item);
-        booking.setStatus(BookingStatus.WAITING);
-
-        Booking savedBooking = bookingRepository.save(booking);
-        log.info("Бронирование ID {} успешно создано для вещи ID {}", savedBooking.getId(), item.getId());
+        try (ShardContext.Scope ignored = ShardContext.open(shard)) {
+            User booker = userRepository.findById(bookerId)
+                    .orElseThrow(() -> NotFoundException.USER_NOT_FOUND);
+            List<Item> items = itemRepository.lockAllByIdOrderById(itemIds);
+            if (items.size() != itemIds.size()) {
+                throw NotFoundException.ITEM_NOT_FOUND;
+            }
+            for (Item item : items) {
+                if (!item.getAvailable()) {
+                    throw new UnavailableItemException("Вещь ID " + item.getId() + " недоступна для бронирования");
+                }
+                if (bookerId.equals(item.getOwner().getId())) {
+                    throw new NotFoundException("Владелец не может бронировать свою вещь");
+                }
+            }
+            List<Long> overlapping = bookingRepository.findItemIdsWithApprovedOverlap(itemIds,
+                    batchDto.getStart(), batchDto.getEnd());
+            if (!overlapping.isEmpty()) {
+                throw new ConflictException("Вещи " + overlapping + " уже забронированы на эти даты");
+            }
 
-        return bookingMapper.toDto(savedBooking);
+            LocalDateTime created = LocalDateTime.now();
+            List<Booking> bookings = items.stream()
+                    .map(item -> Booking.builder()
+                            .start(batchDto.getStart())
+                            .end(batchDto.getEnd())
+                            .item(item)
+                            .booker(booker)
+                            .status(BookingStatus.WAITING)
+                            .created(created)
+                            .build())
+                    .toList();
+            List<Long> ids = bookingBatchRepository.insertAll(bookings);
+            for (int i = 0; i < bookings.size(); i++) {
+                bookings.get(i).setId(ids.get(i));
+                trendingTracker.recordBooking(bookings.get(i).getItem().getId());
+            }
+            log.info("Создано {} бронирований пользователем ID {}", bookings.size(), bookerId);
+            return BatchIds.inRequestedOrder(itemIds, bookingMapper.toDtoList(bookings),
+                    booking -> booking.getItem().getId());
+        }
     }
 
     @Override
-    @Transactional
+    @Transactional(timeoutString = "${shareit.timeout.booking-write:5}")
     public BookingResponseDto approveBooking(Long bookingId, Long ownerId, boolean approved) {
-        log.info("{} бронирования ID {} владельцем ID {}",
-                approved ? "Подтверждение" : "Отклонение", bookingId, ownerId);
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> {
-                    log.error("Бронирование с ID {} не найдено", bookingId);
-                    return new NotFoundException("Бронирование не найдено");
-                });
-
-        if (!booking.getItem().getOwner().getId().equals(ownerId)) {
-            log.warn("Попытка обработки бронирования ID {} не владельцем ID {}", bookingId, ownerId);
-            throw new ForbiddenException("Подтверждать бронирование может только владелец");
-        }
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            log.warn("Попытка повторной обработки бронирования ID {}", bookingId);
-            throw new ConflictException("Бронирование уже было обработано");
-        }
+        try (ShardContext.Scope ignored = shardRouter.forId(bookingId)) {
+            log.info("{} бронирования ID {} владельцем ID {}",
+                    approved ? "Подтверждение" : "Отклонение", bookingId, ownerId);
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> NotFoundException.BOOKING_NOT_FOUND);
+
+            if (!booking.getItem().getOwner().getId().equals(ownerId)) {
+                throw new ForbiddenException("Подтверждать бронирование может только владелец");
+            }
+            if (booking.getStatus() != BookingStatus.WAITING) {
+                throw new ConflictException("Бронирование уже было обработано");
+            }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking updatedBooking = bookingRepository.save(booking);
-        log.info("Бронирование ID {} обновлено со статусом {}", updatedBooking.getId(), updatedBooking.getStatus());
+            booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+            Booking updatedBooking = bookingRepository.save(booking);
+            log.info("Бронирование ID {} обновлено со статусом {}", updatedBooking.getId(), updatedBooking.getStatus());
+            if (approved) {
+                trendingTracker.recordApproval(updatedBooking.getItem().getId());
+            }
 
-        return bookingMapper.toDto(updatedBooking);
+            return bookingMapper.toDto(updatedBooking);
+        }
     }
 
     @Override
     public BookingResponseDto getBookingById(Long bookingId, Long userId) {
-        log.debug("Запрос бронирования ID {} пользователем ID {}", bookingId, userId);
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> {
-                    log.error("При запросе бронирования пользователя, бронирование с ID {} не найдено", bookingId);
-                    return new NotFoundException("Бронирование не найдено");
-                });
-
-        if (!booking.getBooker().getId().equals(userId) &&
-                !booking.getItem().getOwner().getId().equals(userId)) {
-            log.warn("Попытка просмотра бронирования ID {} неавторизованным пользователем ID {}",
-                    bookingId, userId);
-            throw new NotFoundException("Просматривать бронирование может только автор или владелец");
+        try (ShardContext.Scope ignored = shardRouter.forId(bookingId)) {
+            log.debug("Запрос бронирования ID {} пользователем ID {}", bookingId, userId);
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> NotFoundException.BOOKING_NOT_FOUND);
+
+            if (!booking.getBooker().getId().equals(userId) &&
+                    !booking.getItem().getOwner().getId().equals(userId)) {
+                throw new NotFoundException("Просматривать бронирование может только автор или владелец");
+            }
+
+            return bookingMapper.toDto(booking);
         }
+    }
 
-        return bookingMapper.toDto(booking);
+    @Override
+    public List<BookingResponseDto> getBookingsByIds(List<Long> bookingIds, Long userId) {
+        List<Long> ids = BatchIds.normalize(bookingIds, maxBatchIds);
+        log.debug("Запрос {} бронирований по списку ID пользователем ID {}", ids.size(), userId);
+        List<BookingResponseDto> visible = shardRouter.scatterByIds(ids, shardIds -> bookingMapper.toDtoList(
+                bookingRepository.findAllById(shardIds).stream()
+                        .filter(booking -> booking.getBooker().getId().equals(userId)
+                                || booking.getItem().getOwner().getId().equals(userId))
+                        .toList()));
+        return BatchIds.inRequestedOrder(ids, visible, BookingResponseDto::getId);
     }
 
     @Override
+    @Transactional(readOnly = true, timeoutString = "${shareit.timeout.booking-list:3}")
     public List<BookingResponseDto> getUserBookings(Long bookerId, String state, int from, int size) {
+        return findUserBookings(bookerId, state, from, size, Booking.class,
+                booking -> new Ranked<>(booking.getStart(), booking.getId(), bookingMapper.toDto(booking)));
+    }
+
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${shareit.timeout.booking-list:3}")
+    public List<Map<String, Object>> getUserBookings(Long bookerId, String state, int from, int size,
+                                                     FieldSet fields) {
+        if (fields.within(BookingMapper.ROW_FIELDS)) {
+            return findUserBookings(bookerId, state, from, size, BookingRow.class,
+                    row -> new Ranked<>(row.getStart(), row.getId(), bookingMapper.toView(row, fields)));
+        }
+        return findUserBookings(bookerId, state, from, size, Booking.class,
+                booking -> new Ranked<>(booking.getStart(), booking.getId(), bookingMapper.toView(booking, fields)));
+    }
+
+    private <E, T> List<T> findUserBookings(Long bookerId, String state, int from, int size, Class<E> type,
+                                            Function<E, Ranked<T>> ranker) {
         log.info("Получение бронирований пользователя ID {} в статусе {}, from={}, size={}",
                 bookerId, state, from, size);
 
         if (from < 0 || size <= 0) {
-            log.warn("Некорректные параметры пагинации: from={}, size={}", from, size);
             throw new ValidationException("Неверные параметры пагинации");
         }
 
@@ -131,59 +238,134 @@ public class BookingServiceImpl implements BookingService {
             try {
                 BookingStatus.valueOf(state.toUpperCase());
             } catch (IllegalArgumentException e) {
-                log.warn("Неизвестный статус бронирования: {}", state);
                 throw new ValidationException("Неизвестное состояние " + state);
             }
         }
 
         userRepository.findById(bookerId)
-                .orElseThrow(() -> {
-                    log.error("При получении бронирований пользователь с ID {} не найден", bookerId);
-                    return new NotFoundException("Пользователь не найден");
-                });
+                .orElseThrow(() -> NotFoundException.USER_NOT_FOUND);
 
         PageRequest page = PageRequest.of(from / size, size);
         LocalDateTime now = LocalDateTime.now();
 
+        return shardRouter.scatterMerge(page,
+                        shardPage -> queryUserBookings(bookerId, state, now, shardPage, type).stream()
+                                .map(ranker)
+                                .toList(),
+                        RANKED_ORDER).stream()
+                .map(Ranked::value)
+                .toList();
+    }
+
+    private <E> List<E> queryUserBookings(Long bookerId, String state, LocalDateTime now, Pageable page,
+                                          Class<E> type) {
         return switch (state.toUpperCase()) {
-            case "CURRENT" -> bookingMapper.toDtoList(bookingRepository
-                    .findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(bookerId, now, now, page));
-            case "PAST" -> bookingMapper.toDtoList(bookingRepository
-                    .findByBookerIdAndEndBeforeOrderByStartDesc(bookerId, now, page));
-            case "FUTURE" -> bookingMapper.toDtoList(bookingRepository
-                    .findByBookerIdAndStartAfterOrderByStartDesc(bookerId, now, page));
-            case "WAITING", "REJECTED" -> bookingMapper.toDtoList(bookingRepository
-                    .findByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.valueOf(state.toUpperCase()), page));
-            default -> bookingMapper.toDtoList(bookingRepository
-                    .findByBookerIdOrderByStartDesc(bookerId, page));
+            case "CURRENT" -> bookingRepository
+                    .findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(bookerId, now, now, page, type);
+            case "PAST" -> bookingRepository
+                    .findByBookerIdAndEndBeforeOrderByStartDesc(bookerId, now, page, type);
+            case "FUTURE" -> bookingRepository
+                    .findByBookerIdAndStartAfterOrderByStartDesc(bookerId, now, page, type);
+            case "WAITING", "REJECTED" -> bookingRepository
+                    .findByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.valueOf(state.toUpperCase()),
+                            page, type);
+            default -> bookingRepository
+                    .findByBookerIdOrderByStartDesc(bookerId, page, type);
         };
     }
 
     @Override
+    @Transactional(readOnly = true, timeoutString = "${shareit.timeout.booking-list:3}")
     public List<BookingResponseDto> getOwnerBookings(Long ownerId, String state, int from, int size) {
-        log.info("Получение бронирований владельца ID {} в статусе {}, from={}, size={}",
-                ownerId, state, from, size);
+        return bookingMapper.toDtoList(findOwnerBookings(ownerId, state, from, size, Booking.class));
+    }
 
-        userRepository.findById(ownerId)
-                .orElseThrow(() -> {
-                    log.error("Владелец с ID {} не найден", ownerId);
-                    return new NotFoundException("Пользователь не найден");
-                });
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${shareit.timeout.booking-list:3}")
+    public List<Map<String, Object>> getOwnerBookings(Long ownerId, String state, int from, int size,
+                                                      FieldSet fields) {
+        if (fields.within(BookingMapper.ROW_FIELDS)) {
+            return bookingMapper.toRowViewList(findOwnerBookings(ownerId, state, from, size, BookingRow.class),
+                    fields);
+        }
+        return bookingMapper.toViewList(findOwnerBookings(ownerId, state, from, size, Booking.class), fields);
+    }
 
-        PageRequest page = PageRequest.of(from / size, size);
-        LocalDateTime now = LocalDateTime.now();
+    private <E> List<E> findOwnerBookings(Long ownerId, String state, int from, int size, Class<E> type) {
+        try (ShardContext.Scope ignored = shardRouter.forOwner(ownerId)) {
+            log.info("Получение бронирований владельца ID {} в статусе {}, from={}, size={}",
+                    ownerId, state, from, size);
 
-        return switch (state.toUpperCase()) {
-            case "CURRENT" -> bookingMapper.toDtoList(bookingRepository
-                    .findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId, now, now, page));
-            case "PAST" -> bookingMapper.toDtoList(bookingRepository
-                    .findByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, now, page));
-            case "FUTURE" -> bookingMapper.toDtoList(bookingRepository
-                    .findByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, now, page));
-            case "WAITING", "REJECTED" -> bookingMapper.toDtoList(bookingRepository
-                    .findByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.valueOf(state.toUpperCase()), page));
-            default -> bookingMapper.toDtoList(bookingRepository
-                    .findByItemOwnerIdOrderByStartDesc(ownerId, page));
-        };
+            userRepository.findById(ownerId)
+                    .orElseThrow(() -> NotFoundException.USER_NOT_FOUND);
+
+            PageRequest page = PageRequest.of(from / size, size);
+            LocalDateTime now = LocalDateTime.now();
+
+            return switch (state.toUpperCase()) {
+                case "CURRENT" -> bookingRepository
+                        .findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId, now, now, page, type);
+                case "PAST" -> bookingRepository
+                        .findByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, now, page, type);
+                case "FUTURE" -> bookingRepository
+                        .findByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, now, page, type);
+                case "WAITING", "REJECTED" -> bookingRepository
+                        .findByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.valueOf(state.toUpperCase()),
+                                page, type);
+                default -> bookingRepository
+                        .findByItemOwnerIdOrderByStartDesc(ownerId, page, type);
+            };
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${shareit.timeout.booking-list:3}")
+    public List<BookingStateSummaryDto> getOwnerSummary(Long ownerId, int limit) {
+        try (ShardContext.Scope ignored = shardRouter.forOwner(ownerId)) {
+            log.info("Получение сводки бронирований владельца ID {}, limit={}", ownerId, limit);
+            if (limit < 0 || limit > maxSummaryLimit) {
+                throw new ValidationException("Количество бронирований в сводке должно быть от 0 до " + maxSummaryLimit);
+            }
+
+            userRepository.findById(ownerId)
+                    .orElseThrow(() -> NotFoundException.USER_NOT_FOUND);
+
+            LocalDateTime now = LocalDateTime.now();
+            OwnerBookingCounts counts = bookingRepository.countOwnerBookingsByState(ownerId, now);
+            List<OwnerBookingStateRow> rows = limit == 0
+                    ? List.of()
+                    : bookingRepository.findTopOwnerBookingsByState(ownerId, now, limit);
+
+            Map<Long, BookingResponseDto> bookingsById = bookingMapper.toDtoList(bookingRepository.findAllById(
+                            rows.stream().map(OwnerBookingStateRow::getId).distinct().toList())).stream()
+                    .collect(Collectors.toMap(BookingResponseDto::getId, Function.identity()));
+            Map<String, List<BookingResponseDto>> bookingsByState = rows.stream()
+                    .collect(Collectors.groupingBy(OwnerBookingStateRow::getState,
+                            Collectors.mapping(row -> bookingsById.get(row.getId()), Collectors.toList())));
+
+            List<BookingStateSummaryDto> summary = new ArrayList<>();
+            summary.add(toStateSummary("ALL", counts.getTotal(), bookingsByState));
+            summary.add(toStateSummary("CURRENT", counts.getCurrent(), bookingsByState));
+            summary.add(toStateSummary("PAST", counts.getPast(), bookingsByState));
+            summary.add(toStateSummary("FUTURE", counts.getFuture(), bookingsByState));
+            summary.add(toStateSummary("WAITING", counts.getWaiting(), bookingsByState));
+            summary.add(toStateSummary("REJECTED", counts.getRejected(), bookingsByState));
+            return summary;
+        }
+    }
+
+    private BookingStateSummaryDto toStateSummary(String state, Long count,
+                                                  Map<String, List<BookingResponseDto>> bookingsByState) {
+        List<BookingResponseDto> bookings = new ArrayList<>(bookingsByState.getOrDefault(state, List.of()));
+        bookings.sort(Comparator.comparing(BookingResponseDto::getStart).reversed()
+                .thenComparing(BookingResponseDto::getId, Comparator.reverseOrder()));
+        return BookingStateSummaryDto.builder()
+                .state(state)
+                .count(count == null ? 0 : count)
+                .bookings(bookings)
+                .build();
+    }
+
+    private record Ranked<T>(LocalDateTime start, Long id, T value) {
     }
 }
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+@RestController
+@RequestMapping(path = "/reactive/bookings")
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveBookingController {
+    private final ReactiveBookingService bookingService;
+
+    @GetMapping
+    public Flux<BookingResponseDto> getUserBookings(
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getUserBookings(userId, state, from, size);
+    }
+
+    @GetMapping("/owner")
+    public Flux<BookingResponseDto> getOwnerBookings(
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getOwnerBookings(userId, state, from, size);
+    }
+}
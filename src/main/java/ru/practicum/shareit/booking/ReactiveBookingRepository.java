@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+
+@Repository
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveBookingRepository {
+    private static final String SELECT = "SELECT b.id, b.start_date, b.end_date, b.status, " +
+            "u.id AS booker_id, u.name AS booker_name, u.email AS booker_email, " +
+            "i.id AS item_id, i.name AS item_name " +
+            "FROM bookings b " +
+            "JOIN items i ON i.id = b.item_id AND i.deleted = false " +
+            "JOIN users u ON u.id = b.booker_id AND u.deleted = false ";
+
+    private final DatabaseClient reactiveDatabaseClient;
+
+    public Flux<BookingResponseDto> findByBookerId(Long bookerId, String state, LocalDateTime now,
+                                                   int offset, int limit) {
+        return find("b.booker_id = :userId", bookerId, state, now, offset, limit);
+    }
+
+    public Flux<BookingResponseDto> findByItemOwnerId(Long ownerId, String state, LocalDateTime now,
+                                                      int offset, int limit) {
+        return find("i.owner_id = :userId", ownerId, state, now, offset, limit);
+    }
+
+    private Flux<BookingResponseDto> find(String owner, Long userId, String state, LocalDateTime now,
+                                          int offset, int limit) {
+        String condition = switch (state) {
+            case "CURRENT" -> " AND b.start_date < :now AND b.end_date > :now";
+            case "PAST" -> " AND b.end_date < :now";
+            case "FUTURE" -> " AND b.start_date > :now";
+            case "WAITING", "REJECTED" -> " AND b.status = :status";
+            default -> "";
+        };
+        DatabaseClient.GenericExecuteSpec spec = reactiveDatabaseClient
+                .sql(SELECT + "WHERE " + owner + condition + " ORDER BY b.start_date DESC LIMIT :limit OFFSET :offset")
+                .bind("userId", userId)
+                .bind("limit", limit)
+                .bind("offset", offset);
+        if (condition.contains(":now")) {
+            spec = spec.bind("now", now);
+        }
+        if (condition.contains(":status")) {
+            spec = spec.bind("status", state);
+        }
+        return spec.map(ReactiveBookingRepository::toDto).all();
+    }
+
+    private static BookingResponseDto toDto(Readable row) {
+        return BookingResponseDto.builder()
+                .id(row.get("id", Long.class))
+                .start(row.get("start_date", LocalDateTime.class))
+                .end(row.get("end_date", LocalDateTime.class))
+                .status(BookingStatus.valueOf(row.get("status", String.class)))
+                .booker(new UserDto(row.get("booker_id", Long.class), row.get("booker_name", String.class),
+                        row.get("booker_email", String.class)))
+                .item(ItemDto.builder()
+                        .id(row.get("item_id", Long.class))
+                        .name(row.get("item_name", String.class))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.user.ReactiveUserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Service
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveBookingService {
+    private static final Set<String> STATES = Set.of("ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED");
+
+    private final ReactiveBookingRepository bookingRepository;
+    private final ReactiveUserRepository userRepository;
+
+    public Flux<BookingResponseDto> getUserBookings(Long bookerId, String state, int from, int size) {
+        log.debug("Реактивное получение бронирований пользователя ID {} в статусе {}, from={}, size={}",
+                bookerId, state, from, size);
+        String normalized = validate(state, from, size);
+        return whenUserExists(bookerId, bookingRepository.findByBookerId(bookerId, normalized,
+                LocalDateTime.now(), from / size * size, size));
+    }
+
+    public Flux<BookingResponseDto> getOwnerBookings(Long ownerId, String state, int from, int size) {
+        log.debug("Реактивное получение бронирований владельца ID {} в статусе {}, from={}, size={}",
+                ownerId, state, from, size);
+        String normalized = validate(state, from, size);
+        return whenUserExists(ownerId, bookingRepository.findByItemOwnerId(ownerId, normalized,
+                LocalDateTime.now(), from / size * size, size));
+    }
+
+    private Flux<BookingResponseDto> whenUserExists(Long userId, Flux<BookingResponseDto> bookings) {
+        return userRepository.existsById(userId)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(NotFoundException.USER_NOT_FOUND))
+                .thenMany(bookings);
+    }
+
+    private String validate(String state, int from, int size) {
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Неверные параметры пагинации");
+        }
+        String normalized = state.toUpperCase();
+        if (!STATES.contains(normalized)) {
+            throw new ValidationException("Неизвестное состояние " + state);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemMonthUtilizationDto {
+    private Long itemId;
+    private YearMonth month;
+    private double utilization;
+    private int bookings;
+    private int rejected;
+    private double rejectionRate;
+    private Double averageLeadTimeHours;
+}
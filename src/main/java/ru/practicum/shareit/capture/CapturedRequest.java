@@ -0,0 +1,13 @@
+package ru.practicum.shareit.capture;
+
+import java.util.Map;
+
+public record CapturedRequest(long offsetMillis,
+                              String method,
+                              String path,
+                              String query,
+                              Map<String, String> headers,
+                              String body,
+                              int status,
+                              long durationMicros) {
+}
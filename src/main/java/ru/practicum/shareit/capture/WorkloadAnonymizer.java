@@ -0,0 +1,123 @@
+package ru.practicum.shareit.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class WorkloadAnonymizer {
+    private static final Set<String> TEXT_FIELDS = Set.of("name", "description", "text");
+    private static final Set<String> TEXT_PARAMS = Set.of("text", "prefix");
+    private static final Set<String> COORDINATE_FIELDS = Set.of("latitude", "longitude");
+    private static final Set<String> COORDINATE_PARAMS = Set.of("lat", "lon");
+    private static final double KM_PER_DEGREE = Math.PI * 6371.0088 / 180;
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final double cellDegrees;
+
+    WorkloadAnonymizer(ObjectMapper objectMapper, String salt, double cellSizeKm) {
+        this.objectMapper = objectMapper;
+        this.key = new SecretKeySpec(salt.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.cellDegrees = cellSizeKm / KM_PER_DEGREE;
+    }
+
+    String body(byte[] content) {
+        if (content.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(content);
+            anonymize(root);
+            return objectMapper.writeValueAsString(root);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    String query(String query) {
+        if (query == null || query.isEmpty()) {
+            return query;
+        }
+        UriComponentsBuilder builder = UriComponentsBuilder.newInstance().query(query);
+        Map<String, List<String>> params = builder.build().getQueryParams();
+        for (String param : TEXT_PARAMS) {
+            if (params.containsKey(param)) {
+                builder.replaceQueryParam(param, params.get(param).stream()
+                        .map(value -> text(URLDecoder.decode(value, StandardCharsets.UTF_8)))
+                        .toArray());
+            }
+        }
+        for (String param : COORDINATE_PARAMS) {
+            if (params.containsKey(param)) {
+                builder.replaceQueryParam(param, params.get(param).stream()
+                        .map(value -> coordinate(URLDecoder.decode(value, StandardCharsets.UTF_8)))
+                        .toArray());
+            }
+        }
+        return builder.build().getQuery();
+    }
+
+    String token(String value) {
+        return value == null ? null : hash(value).substring(0, 16);
+    }
+
+    private void anonymize(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getValue().isTextual() && field.getKey().equals("email")) {
+                    object.put(field.getKey(), "u" + token(field.getValue().asText()) + "@capture.local");
+                } else if (field.getValue().isTextual() && TEXT_FIELDS.contains(field.getKey())) {
+                    object.put(field.getKey(), text(field.getValue().asText()));
+                } else if (field.getValue().isNumber() && COORDINATE_FIELDS.contains(field.getKey())) {
+                    object.put(field.getKey(), coordinate(field.getValue().asDouble()));
+                } else {
+                    anonymize(field.getValue());
+                }
+            }
+        } else if (node.isArray()) {
+            node.forEach(this::anonymize);
+        }
+    }
+
+    private String text(String value) {
+        String hash = hash(value.toLowerCase());
+        return hash.substring(0, Math.max(4, Math.min(value.length(), hash.length())));
+    }
+
+    private String coordinate(String value) {
+        try {
+            return String.valueOf(coordinate(Double.parseDouble(value)));
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    private double coordinate(double value) {
+        return (Math.floor(value / cellDegrees) + 0.5) * cellDegrees;
+    }
+
+    private String hash(String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return HexFormat.of().formatHex(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Не удалось вычислить псевдоним", e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+@ConditionalOnProperty(name = "shareit.capture.enabled", havingValue = "true")
+public class WorkloadCaptureFilter extends OncePerRequestFilter {
+    private static final List<String> CAPTURED_PREFIXES = List.of("/items", "/bookings", "/users");
+    private static final List<String> CAPTURED_HEADERS = List.of("X-Sharer-User-Id", "Content-Type", "Accept");
+
+    private final WorkloadCaptureWriter writer;
+    private final WorkloadAnonymizer anonymizer;
+    private final double sampleRate;
+    private final int maxBodyBytes;
+
+    public WorkloadCaptureFilter(WorkloadCaptureWriter writer,
+                                 ObjectMapper objectMapper,
+                                 @Value("${shareit.capture.sample-rate:0.01}") double sampleRate,
+                                 @Value("${shareit.capture.max-body-bytes:16384}") int maxBodyBytes,
+                                 @Value("${shareit.capture.salt:}") String salt,
+                                 @Value("${shareit.item.geo.cell-size-km:5}") double cellSizeKm) {
+        this.writer = writer;
+        this.anonymizer = new WorkloadAnonymizer(objectMapper, salt.isEmpty() ? UUID.randomUUID().toString() : salt,
+                cellSizeKm);
+        this.sampleRate = sampleRate;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return CAPTURED_PREFIXES.stream().noneMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ContentCachingRequestWrapper wrapper = new ContentCachingRequestWrapper(request, maxBodyBytes);
+        long offsetMillis = writer.offsetMillis();
+        long started = System.nanoTime();
+        try {
+            chain.doFilter(wrapper, response);
+        } finally {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String header : CAPTURED_HEADERS) {
+                String value = request.getHeader(header);
+                if (value != null) {
+                    headers.put(header, value);
+                }
+            }
+            String idempotencyKey = request.getHeader("Idempotency-Key");
+            if (idempotencyKey != null) {
+                headers.put("Idempotency-Key", anonymizer.token(idempotencyKey));
+            }
+            writer.submit(new CapturedRequest(offsetMillis, request.getMethod(), request.getRequestURI(),
+                    anonymizer.query(request.getQueryString()), headers,
+                    anonymizer.body(wrapper.getContentAsByteArray()), response.getStatus(),
+                    (System.nanoTime() - started) / 1_000));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.capture;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "shareit.capture.enabled", havingValue = "true")
+@Slf4j
+public class WorkloadCaptureWriter {
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final BlockingQueue<CapturedRequest> queue;
+    private final Thread writer = new Thread(this::writeLoop, "workload-capture");
+    private final long startedAt = System.currentTimeMillis();
+    private final Counter recorded;
+    private final Counter dropped;
+    private volatile boolean running = true;
+
+    public WorkloadCaptureWriter(ObjectMapper objectMapper,
+                                 @Value("${shareit.capture.file:workload.jsonl}") Path file,
+                                 @Value("${shareit.capture.queue-capacity:10000}") int queueCapacity,
+                                 MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.recorded = Counter.builder("shareit.capture.requests")
+                .tag("result", "recorded")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("shareit.capture.requests")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Запись нагрузки включена, файл {}", file.toAbsolutePath());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    long offsetMillis() {
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    void submit(CapturedRequest request) {
+        if (!queue.offer(request)) {
+            dropped.increment();
+        }
+    }
+
+    private void writeLoop() {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            List<CapturedRequest> batch = new ArrayList<>();
+            while (running || !queue.isEmpty()) {
+                CapturedRequest first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                for (CapturedRequest request : batch) {
+                    write(out, request);
+                }
+                out.flush();
+                recorded.increment(batch.size());
+                batch.clear();
+            }
+        } catch (IOException e) {
+            log.error("Запись нагрузки остановлена: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(BufferedWriter out, CapturedRequest request) throws IOException {
+        try {
+            out.write(objectMapper.writeValueAsString(request));
+            out.newLine();
+        } catch (JsonProcessingException e) {
+            dropped.increment();
+        }
+    }
+}
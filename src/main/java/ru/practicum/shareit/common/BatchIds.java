@@ -0,0 +1,39 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public final class BatchIds {
+    private BatchIds() {
+    }
+
+    public static List<Long> normalize(List<Long> ids, int maxSize) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.isEmpty()) {
+            throw new ValidationException("Список идентификаторов не может быть пустым");
+        }
+        if (distinct.size() > maxSize) {
+            throw new ValidationException("Можно запросить не более " + maxSize + " идентификаторов");
+        }
+        if (distinct.stream().anyMatch(id -> id == null || id <= 0)) {
+            throw new ValidationException("Идентификаторы должны быть положительными");
+        }
+        return distinct;
+    }
+
+    public static <T> List<T> inRequestedOrder(List<Long> ids, List<T> found, Function<T, Long> idGetter) {
+        Map<Long, T> byId = found.stream()
+                .collect(Collectors.toMap(idGetter, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class FieldSet {
+    private final Set<String> fields;
+
+    private FieldSet(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSet parse(String fields, Set<String> allowed) {
+        Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        if (requested.isEmpty()) {
+            throw new ValidationException("Список полей не может быть пустым");
+        }
+        for (String field : requested) {
+            if (!allowed.contains(field)) {
+                throw new ValidationException("Неизвестное поле " + field);
+            }
+        }
+        return new FieldSet(requested);
+    }
+
+    public boolean contains(String field) {
+        return fields.contains(field);
+    }
+
+    public boolean within(Set<String> allowed) {
+        return allowed.containsAll(fields);
+    }
+}
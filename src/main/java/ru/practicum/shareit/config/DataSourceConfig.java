@@ -0,0 +1,91 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.practicum.shareit.shard.ShardPools;
+import ru.practicum.shareit.shard.ShardRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class DataSourceConfig {
+    @Bean(destroyMethod = "close")
+    @Qualifier("writeDataSource")
+    public HikariDataSource writeDataSource(
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.datasource.write.max-pool-size:4}") int maxPoolSize,
+            @Value("${shareit.datasource.write.connection-timeout:5s}") Duration connectionTimeout) {
+        return pool("shareit-write", properties, meterRegistry, maxPoolSize, connectionTimeout);
+    }
+
+    @Bean(destroyMethod = "close")
+    @Qualifier("readDataSource")
+    public HikariDataSource readDataSource(
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.datasource.read.max-pool-size:8}") int maxPoolSize,
+            @Value("${shareit.datasource.read.connection-timeout:2s}") Duration connectionTimeout) {
+        HikariDataSource pool = pool("shareit-read", properties, meterRegistry, maxPoolSize, connectionTimeout);
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ShardPools shardPools(
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.sharding.urls:}") List<String> urls,
+            @Value("${shareit.sharding.max-pool-size:4}") int maxPoolSize,
+            @Value("${shareit.sharding.connection-timeout:5s}") Duration connectionTimeout) {
+        List<HikariDataSource> pools = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource pool = pool("shareit-shard-" + (pools.size() + 1), properties, meterRegistry,
+                    maxPoolSize, connectionTimeout);
+            pool.setJdbcUrl(url.strip());
+            pools.add(pool);
+        }
+        return new ShardPools(pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource,
+                                 ShardPools shardPools) {
+        if (shardPools.shardCount() > 1) {
+            List<DataSource> writeTargets = new ArrayList<>(List.of(writeDataSource));
+            List<DataSource> readTargets = new ArrayList<>(List.of(readDataSource));
+            writeTargets.addAll(shardPools.extraShards());
+            readTargets.addAll(shardPools.extraShards());
+            writeDataSource = new ShardRoutingDataSource(writeTargets);
+            readDataSource = new ShardRoutingDataSource(readTargets);
+        }
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+        dataSource.setReadOnlyDataSource(readDataSource);
+        return dataSource;
+    }
+
+    private HikariDataSource pool(String name, DataSourceProperties properties, MeterRegistry meterRegistry,
+                                  int maxPoolSize, Duration connectionTimeout) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(maxPoolSize);
+        pool.setConnectionTimeout(connectionTimeout.toMillis());
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public abstract class DomainException extends RuntimeException {
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
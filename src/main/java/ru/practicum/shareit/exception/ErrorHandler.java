@@ -1,43 +1,71 @@
 package ru.practicum.shareit.exception;
 
-import io.micrometer.core.instrument.config.validate.ValidationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @RestControllerAdvice
 public class ErrorHandler {
+    private final MeterRegistry meterRegistry;
+    private final int logSampleRate;
+    private final Map<Class<?>, AtomicLong> occurrences = new ConcurrentHashMap<>();
+
+    public ErrorHandler(MeterRegistry meterRegistry,
+                        @Value("${shareit.errors.log-sample-rate:100}") int logSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.logSampleRate = Math.max(1, logSampleRate);
+    }
+
     @ExceptionHandler(NotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
-    public ErrorResponse handleNotFound(NotFoundException e) {
-        log.error("Not Found Exception: {}", e.getMessage(), e);
+    public ErrorResponse handleNotFound(NotFoundException e, HttpServletRequest request) {
+        recordClientError(e, request);
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler(ConflictException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
-    public ErrorResponse handleConflict(ConflictException e) {
-        log.error("Conflict Exception: {}", e.getMessage(), e);
+    public ErrorResponse handleConflict(ConflictException e, HttpServletRequest request) {
+        recordClientError(e, request);
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler(ValidationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse handleValidation(ValidationException e) {
-        log.error("Validation Exception: {}", e.getMessage(), e);
+    public ErrorResponse handleValidation(ValidationException e, HttpServletRequest request) {
+        recordClientError(e, request);
         return new ErrorResponse("Validation error: " + e.getMessage());
     }
 
     @ExceptionHandler(UnavailableItemException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse handleUnavailableItem(UnavailableItemException e) {
-        log.error("Unavailable Item Exception: {}", e.getMessage(), e);
+    public ErrorResponse handleUnavailableItem(UnavailableItemException e, HttpServletRequest request) {
+        recordClientError(e, request);
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler({QueryTimeoutException.class, TransactionTimedOutException.class,
+            CannotCreateTransactionException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleTimeout(Exception e) {
+        log.error("Database Timeout: {}", e.getMessage(), e);
+        return new ErrorResponse("Превышено время ожидания базы данных, повторите запрос позже");
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleInternalError(Exception e) {
@@ -47,9 +75,19 @@ public class ErrorHandler {
 
     @ExceptionHandler(ForbiddenException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
-    public ErrorResponse handleForbidden(ForbiddenException e) {
-        log.error("Forbidden Exception: {}", e.getMessage(), e);
+    public ErrorResponse handleForbidden(ForbiddenException e, HttpServletRequest request) {
+        recordClientError(e, request);
         return new ErrorResponse(e.getMessage());
     }
-}
 
+    private void recordClientError(DomainException e, HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String type = e.getClass().getSimpleName();
+        String endpoint = request.getMethod() + " " + (pattern == null ? "unknown" : pattern);
+        meterRegistry.counter("shareit.client.errors", "type", type, "endpoint", endpoint).increment();
+        long seen = occurrences.computeIfAbsent(e.getClass(), key -> new AtomicLong()).getAndIncrement();
+        if (log.isDebugEnabled() && seen % logSampleRate == 0) {
+            log.debug("{} at {} (sampled 1/{}): {}", type, endpoint, logSampleRate, e.getMessage());
+        }
+    }
+}
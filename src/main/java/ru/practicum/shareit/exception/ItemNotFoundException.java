@@ -1,7 +0,0 @@
-package ru.practicum.shareit.exception;
-
-public class ItemNotFoundException extends RuntimeException {
-    public ItemNotFoundException(String message) {
-        super(message);
-    }
-}
@@ -1,6 +1,10 @@
 package ru.practicum.shareit.exception;
 
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends DomainException {
+    public static final NotFoundException USER_NOT_FOUND = new NotFoundException("Пользователь не найден");
+    public static final NotFoundException ITEM_NOT_FOUND = new NotFoundException("Вещь не найдена");
+    public static final NotFoundException BOOKING_NOT_FOUND = new NotFoundException("Бронирование не найдено");
+
     public NotFoundException(String message) {
         super(message);
     }
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyClaimRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean claim(String key, String requestHash, LocalDateTime created, LocalDateTime leaseUntil) {
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, status, created, " +
+                    "lease_until) VALUES (?, ?, 'PENDING', ?, ?)", key, requestHash, created, leaseUntil);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public boolean takeOver(String key, String requestHash, LocalDateTime now, LocalDateTime leaseUntil) {
+        return jdbcTemplate.update("UPDATE idempotency_keys SET lease_until = ? " +
+                "WHERE idempotency_key = ? AND request_hash = ? AND status = 'PENDING' " +
+                "AND (lease_until IS NULL OR lease_until < ?)", leaseUntil, key, requestHash, now) > 0;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRepository extends JpaRepository<IdempotencyRecord, String> {
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.created < :threshold")
+    int deleteCreatedBefore(@Param("threshold") LocalDateTime threshold);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :completed, r.response = :response " +
+            "WHERE r.key = :key AND r.status = :pending AND r.leaseUntil = :leaseUntil")
+    int complete(@Param("key") String key,
+                 @Param("response") String response,
+                 @Param("pending") IdempotencyStatus pending,
+                 @Param("completed") IdempotencyStatus completed,
+                 @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.status = :pending " +
+            "AND r.leaseUntil = :leaseUntil")
+    int deletePending(@Param("key") String key,
+                      @Param("pending") IdempotencyStatus pending,
+                      @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.created < :threshold")
+    int deleteExpired(@Param("key") String key, @Param("threshold") LocalDateTime threshold);
+}
@@ -0,0 +1,252 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+public class IdempotencyService {
+    private static final long PENDING_POLL_MILLIS = 50;
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final IdempotencyClaimRepository claimRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration pendingWait;
+    private final Duration lease;
+    private final TransactionTemplate transaction;
+    private final Map<String, StoredResponse> memory;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter replayed;
+
+    public IdempotencyService(IdempotencyRepository idempotencyRepository,
+                              IdempotencyClaimRepository claimRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${shareit.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${shareit.idempotency.memory-max-entries:10000}") int memoryMaxEntries,
+                              @Value("${shareit.idempotency.pending-wait:10s}") Duration pendingWait,
+                              @Value("${shareit.idempotency.lease:30s}") Duration lease,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.claimRepository = claimRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.pendingWait = pendingWait;
+        this.lease = lease;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > memoryMaxEntries;
+            }
+        };
+        this.executed = Counter.builder("shareit.idempotency.requests")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.replayed = Counter.builder("shareit.idempotency.requests")
+                .tag("result", "replayed")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(String idempotencyKey, Long userId, String operation, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+
+        String key = operation + ":" + userId + ":"
+                + DigestUtils.md5DigestAsHex(idempotencyKey.getBytes(StandardCharsets.UTF_8));
+        String requestHash = hash(request);
+
+        StoredResponse stored = fromMemory(key);
+        if (stored != null) {
+            return replay(key, stored, requestHash, responseType);
+        }
+
+        CompletableFuture<StoredResponse> own = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            log.debug("Повторный запрос с ключом идемпотентности {} ожидает завершения первого", key);
+            return replay(key, await(existing), requestHash, responseType);
+        }
+
+        try {
+            Claim claim = claim(key, requestHash);
+            if (claim.stored() != null) {
+                own.complete(claim.stored());
+                return replay(key, claim.stored(), requestHash, responseType);
+            }
+
+            T response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                transaction.executeWithoutResult(status ->
+                        idempotencyRepository.deletePending(key, IdempotencyStatus.PENDING, claim.leaseUntil()));
+                throw e;
+            }
+            executed.increment();
+            stored = new StoredResponse(requestHash, toJson(response), LocalDateTime.now());
+            complete(key, stored, claim.leaseUntil());
+            own.complete(stored);
+            return response;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.idempotency.purge-interval:PT10M}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) {
+            log.info("Удалено {} устаревших ключей идемпотентности", deleted);
+        }
+    }
+
+    private <T> T replay(String key, StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new ConflictException("Ключ идемпотентности уже использован для другого запроса");
+        }
+        replayed.increment();
+        log.debug("Возвращён сохранённый ответ для ключа идемпотентности {}", key);
+        try {
+            return objectMapper.readValue(stored.response(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать сохранённый ответ", e);
+        }
+    }
+
+    private StoredResponse fromMemory(String key) {
+        synchronized (memory) {
+            StoredResponse stored = memory.get(key);
+            if (stored != null && isExpired(stored.created())) {
+                memory.remove(key);
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private Claim claim(String key, String requestHash) {
+        long deadline = System.nanoTime() + pendingWait.toNanos();
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime leaseUntil = now.plus(lease).truncatedTo(ChronoUnit.MILLIS);
+            if (claimRepository.claim(key, requestHash, now, leaseUntil)) {
+                return new Claim(leaseUntil, null);
+            }
+
+            IdempotencyRecord record = idempotencyRepository.findById(key).orElse(null);
+            if (record != null) {
+                if (isExpired(record.getCreated())) {
+                    transaction.executeWithoutResult(status -> idempotencyRepository.deleteExpired(key,
+                            LocalDateTime.now().minus(ttl)));
+                    continue;
+                }
+                if (!record.getRequestHash().equals(requestHash)) {
+                    throw new ConflictException("Ключ идемпотентности уже использован для другого запроса");
+                }
+                if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                    return new Claim(null, remember(key, new StoredResponse(record.getRequestHash(),
+                            record.getResponse(), record.getCreated())));
+                }
+                if ((record.getLeaseUntil() == null || record.getLeaseUntil().isBefore(now))
+                        && claimRepository.takeOver(key, requestHash, now, leaseUntil)) {
+                    log.warn("Аренда ключа идемпотентности {} истекла, запрос выполняется повторно", key);
+                    return new Claim(leaseUntil, null);
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                throw new ConflictException("Запрос с этим ключом идемпотентности ещё выполняется");
+            }
+            sleep();
+        }
+    }
+
+    private void complete(String key, StoredResponse stored, LocalDateTime leaseUntil) {
+        remember(key, stored);
+        Integer updated = transaction.execute(status -> idempotencyRepository.complete(key, stored.response(),
+                IdempotencyStatus.PENDING, IdempotencyStatus.COMPLETED, leaseUntil));
+        if (updated == null || updated == 0) {
+            log.warn("Ключ идемпотентности {} не найден или перехвачен при сохранении ответа", key);
+        }
+    }
+
+    private void sleep() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(PENDING_POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Запрос с этим ключом идемпотентности ещё выполняется");
+        }
+    }
+
+    private StoredResponse remember(String key, StoredResponse stored) {
+        synchronized (memory) {
+            memory.put(key, stored);
+        }
+        return stored;
+    }
+
+    private boolean isExpired(LocalDateTime created) {
+        return created.isBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    private String hash(Object request) {
+        return DigestUtils.md5DigestAsHex(toJson(request).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать значение", e);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record StoredResponse(String requestHash, String response, LocalDateTime created) {
+    }
+
+    private record Claim(LocalDateTime leaseUntil, StoredResponse stored) {
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.invalidation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemGeoIndex;
+import ru.practicum.shareit.item.ItemSearchCache;
+import ru.practicum.shareit.item.ItemSuggestIndex;
+import ru.practicum.shareit.item.ItemViewSingleFlight;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidator {
+    private final ItemSearchCache searchCache;
+    private final ItemViewSingleFlight itemViewSingleFlight;
+    private final ItemSuggestIndex suggestIndex;
+    private final ItemGeoIndex geoIndex;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void apply(InvalidationEvent event) {
+        switch (event.type()) {
+            case ITEM_UPSERTED -> {
+                searchCache.invalidateMatching(event.texts().toArray(String[]::new));
+                if (Boolean.TRUE.equals(event.available())) {
+                    suggestIndex.put(event.id(), event.name(), event.ownerId());
+                    geoIndex.put(event.id(), event.ownerId(), event.latitude(), event.longitude());
+                } else {
+                    suggestIndex.remove(event.id());
+                    geoIndex.remove(event.id());
+                }
+                itemViewSingleFlight.invalidate(event.id());
+            }
+            case ITEM_DELETED -> {
+                searchCache.invalidateMatching(event.texts().toArray(String[]::new));
+                suggestIndex.remove(event.id());
+                geoIndex.remove(event.id());
+                itemViewSingleFlight.invalidate(event.id());
+            }
+            case ITEM_VIEW_CHANGED -> itemViewSingleFlight.invalidate(event.id());
+            case USER_UPDATED -> itemViewSingleFlight.invalidateAll();
+            case USER_DELETED -> {
+                searchCache.invalidateAll();
+                itemViewSingleFlight.invalidateAll();
+                suggestIndex.removeOwner(event.id());
+                geoIndex.removeOwner(event.id());
+            }
+            case FLUSH -> flushAll();
+        }
+    }
+
+    public void flushAll() {
+        log.info("Полная очистка локальных кэшей по событию инвалидации");
+        searchCache.invalidateAll();
+        itemViewSingleFlight.invalidateAll();
+        if (!rebuildPending.compareAndSet(false, true)) {
+            log.debug("Перестроение индексов уже запланировано");
+            return;
+        }
+        rebuilder.execute(this::rebuildIndexes);
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    private void rebuildIndexes() {
+        rebuildPending.set(false);
+        try {
+            suggestIndex.rebuild();
+            geoIndex.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось перестроить индексы после очистки кэшей: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package ru.practicum.shareit.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.AfterCommit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@Slf4j
+public class InvalidationBus {
+    private static final int MAX_PAYLOAD_BYTES = 7500;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final InvalidationTransport transport;
+    private final CacheInvalidator cacheInvalidator;
+    private final ObjectMapper objectMapper;
+    private final long batchWindowMillis;
+    private final BlockingQueue<InvalidationEvent> outbox;
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "invalidation-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter sent;
+    private final Counter received;
+    private final Counter flushes;
+
+    public InvalidationBus(InvalidationTransport transport,
+                           CacheInvalidator cacheInvalidator,
+                           ObjectMapper objectMapper,
+                           @Value("${shareit.invalidation.batch-window:50ms}") Duration batchWindow,
+                           @Value("${shareit.invalidation.outbox-capacity:10000}") int outboxCapacity,
+                           MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.cacheInvalidator = cacheInvalidator;
+        this.objectMapper = objectMapper;
+        this.batchWindowMillis = batchWindow.toMillis();
+        this.outbox = new ArrayBlockingQueue<>(outboxCapacity);
+        this.sent = Counter.builder("shareit.invalidation.events")
+                .tag("direction", "sent")
+                .register(meterRegistry);
+        this.received = Counter.builder("shareit.invalidation.events")
+                .tag("direction", "received")
+                .register(meterRegistry);
+        this.flushes = Counter.builder("shareit.invalidation.flushes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        transport.start(this::receive, this::onReconnect);
+        sender.scheduleWithFixedDelay(this::drain, batchWindowMillis, batchWindowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdown();
+        drain();
+        transport.stop();
+    }
+
+    public void publish(InvalidationEvent event) {
+        AfterCommit.run(() -> {
+            if (!outbox.offer(event)) {
+                overflowed.set(true);
+            }
+        });
+    }
+
+    void receive(String payload) {
+        Message message;
+        try {
+            message = objectMapper.readValue(payload, Message.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Не удалось разобрать сообщение об инвалидации: {}", e.getOriginalMessage());
+            return;
+        }
+        if (nodeId.equals(message.node())) {
+            return;
+        }
+        received.increment(message.events().size());
+        for (InvalidationEvent event : message.events()) {
+            if (event.type() == InvalidationEvent.Type.FLUSH) {
+                flushes.increment();
+            }
+            cacheInvalidator.apply(event);
+        }
+    }
+
+    private void onReconnect() {
+        log.info("Канал инвалидации восстановлен, локальные кэши будут очищены");
+        flushes.increment();
+        cacheInvalidator.flushAll();
+    }
+
+    private synchronized void drain() {
+        List<InvalidationEvent> events = new ArrayList<>();
+        outbox.drainTo(events);
+        if (overflowed.getAndSet(false)) {
+            log.warn("Очередь событий инвалидации переполнена, узлам будет отправлена полная очистка");
+            events = List.of(InvalidationEvent.flush());
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        List<String> payloads = new ArrayList<>();
+        List<InvalidationEvent> batch = new ArrayList<>();
+        int emptyBytes = payloadBytes(List.of());
+        int batchBytes = emptyBytes;
+        for (InvalidationEvent event : events) {
+            int eventBytes = payloadBytes(List.of(event)) - emptyBytes + 1;
+            if (emptyBytes + eventBytes > MAX_PAYLOAD_BYTES) {
+                event = InvalidationEvent.flush();
+                eventBytes = payloadBytes(List.of(event)) - emptyBytes + 1;
+            }
+            if (batchBytes + eventBytes > MAX_PAYLOAD_BYTES) {
+                payloads.add(toPayload(batch));
+                batch = new ArrayList<>();
+                batchBytes = emptyBytes;
+            }
+            batch.add(event);
+            batchBytes += eventBytes;
+        }
+        payloads.add(toPayload(batch));
+        try {
+            for (String payload : payloads) {
+                transport.send(payload);
+            }
+            sent.increment(events.size());
+        } catch (RuntimeException e) {
+            log.warn("Не удалось отправить события инвалидации: {}", e.getMessage());
+            overflowed.set(true);
+        }
+    }
+
+    private int payloadBytes(List<InvalidationEvent> events) {
+        return toPayload(events).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private String toPayload(List<InvalidationEvent> events) {
+        try {
+            return objectMapper.writeValueAsString(new Message(nodeId, events));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать события инвалидации", e);
+        }
+    }
+
+    private record Message(String node, List<InvalidationEvent> events) {
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.invalidation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+public record InvalidationEvent(Type type, Long id, Long ownerId, String name, Boolean available,
+                                Double latitude, Double longitude, List<String> texts) {
+    public enum Type {
+        ITEM_UPSERTED,
+        ITEM_DELETED,
+        ITEM_VIEW_CHANGED,
+        USER_UPDATED,
+        USER_DELETED,
+        FLUSH
+    }
+
+    public static InvalidationEvent itemUpserted(Long itemId, Long ownerId, String name, Boolean available,
+                                                 Double latitude, Double longitude, String... texts) {
+        return new InvalidationEvent(Type.ITEM_UPSERTED, itemId, ownerId, name, available, latitude, longitude,
+                nonNull(texts));
+    }
+
+    public static InvalidationEvent itemDeleted(Long itemId, String... texts) {
+        return new InvalidationEvent(Type.ITEM_DELETED, itemId, null, null, null, null, null, nonNull(texts));
+    }
+
+    public static InvalidationEvent itemViewChanged(Long itemId) {
+        return new InvalidationEvent(Type.ITEM_VIEW_CHANGED, itemId, null, null, null, null, null, List.of());
+    }
+
+    public static InvalidationEvent userUpdated(Long userId) {
+        return new InvalidationEvent(Type.USER_UPDATED, userId, null, null, null, null, null, List.of());
+    }
+
+    public static InvalidationEvent userDeleted(Long userId) {
+        return new InvalidationEvent(Type.USER_DELETED, userId, null, null, null, null, null, List.of());
+    }
+
+    public static InvalidationEvent flush() {
+        return new InvalidationEvent(Type.FLUSH, null, null, null, null, null, null, List.of());
+    }
+
+    private static List<String> nonNull(String... texts) {
+        return Arrays.stream(texts).filter(Objects::nonNull).toList();
+    }
+}
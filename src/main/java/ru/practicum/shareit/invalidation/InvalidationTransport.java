@@ -0,0 +1,11 @@
+package ru.practicum.shareit.invalidation;
+
+import java.util.function.Consumer;
+
+public interface InvalidationTransport {
+    void start(Consumer<String> receiver, Runnable onReconnect);
+
+    void send(String payload);
+
+    void stop();
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "shareit.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+    private volatile Consumer<String> receiver = payload -> {
+    };
+
+    @Override
+    public void start(Consumer<String> receiver, Runnable onReconnect) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void send(String payload) {
+        receiver.accept(payload);
+    }
+
+    @Override
+    public void stop() {
+    }
+}
@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
@@ -12,4 +15,43 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByItemId(@Param("itemId") Long itemId);
 
     List<Comment> findByItemIdIn(List<Long> itemIds);
+
+    @Query(value = "SELECT * FROM (" +
+            "SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.id DESC) AS rn " +
+            "FROM comments c JOIN users u ON u.id = c.author_id " +
+            "WHERE c.item_id IN (:itemIds) AND u.deleted = false) latest " +
+            "WHERE latest.rn <= :limit " +
+            "ORDER BY latest.item_id, latest.id",
+            nativeQuery = true)
+    List<Comment> findLatestByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author " +
+            "WHERE c.item.id = :itemId " +
+            "ORDER BY c.id DESC")
+    List<Comment> findLatestByItemId(@Param("itemId") Long itemId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author " +
+            "WHERE c.item.id = :itemId " +
+            "AND c.id < :cursor " +
+            "ORDER BY c.id DESC")
+    List<Comment> findByItemIdBefore(@Param("itemId") Long itemId,
+                                     @Param("cursor") Long cursor,
+                                     Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM comments WHERE id IN " +
+            "(SELECT id FROM comments WHERE item_id = :itemId ORDER BY id LIMIT :limit)",
+            nativeQuery = true)
+    int purgeChunkByItemId(@Param("itemId") Long itemId, @Param("limit") int limit);
+
+    @Query(value = "SELECT id FROM comments WHERE author_id = :authorId ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId, @Param("limit") int limit);
+
+    @Query(value = "SELECT DISTINCT item_id FROM comments WHERE id IN (:ids)", nativeQuery = true)
+    List<Long> findItemIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM comments WHERE id IN (:ids)", nativeQuery = true)
+    int purgeByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -5,8 +5,13 @@ import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.FieldSet;
+import ru.practicum.shareit.idempotency.IdempotencyService;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.TrendingItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 
 import java.util.List;
@@ -18,11 +23,14 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     public ItemDto createItem(@Valid @RequestBody ItemDto itemDto,
-                              @RequestHeader("X-Sharer-User-Id") @Positive Long ownerId) {
-        return itemService.createItem(itemDto, ownerId);
+                              @RequestHeader("X-Sharer-User-Id") @Positive Long ownerId,
+                              @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, ownerId, "createItem", itemDto,
+                ItemDto.class, () -> itemService.createItem(itemDto, ownerId));
     }
 
     @GetMapping("/{itemId}")
@@ -31,9 +39,19 @@ public class ItemController {
         return itemService.getItemById(itemId,userId);
     }
 
+    @GetMapping(params = "ids")
+    public List<ItemDto> getItemsByIds(@RequestParam List<Long> ids,
+                                       @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return itemService.getItemsByIds(ids, userId);
+    }
+
     @GetMapping
-    public List<ItemDto> getAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") @Positive Long ownerId) {
-        return itemService.getAllItemsByOwner(ownerId);
+    public List<?> getAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") @Positive Long ownerId,
+                                      @RequestParam(required = false) String fields) {
+        if (fields == null) {
+            return itemService.getAllItemsByOwner(ownerId);
+        }
+        return itemService.getAllItemsByOwner(ownerId, FieldSet.parse(fields, ItemMapper.VIEW_FIELDS));
     }
 
     @PatchMapping("/{itemId}")
@@ -44,15 +62,50 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestParam String text) {
-        return itemService.searchItems(text);
+    public List<?> searchItems(@RequestParam String text,
+                               @RequestParam(required = false) Double lat,
+                               @RequestParam(required = false) Double lon,
+                               @RequestParam(required = false) Double radius,
+                               @RequestParam(required = false) String fields) {
+        if (lat != null || lon != null || radius != null) {
+            if (fields == null) {
+                return itemService.searchItemsNearby(text, lat, lon, radius);
+            }
+            return itemService.searchItemsNearby(text, lat, lon, radius,
+                    FieldSet.parse(fields, ItemMapper.VIEW_FIELDS));
+        }
+        if (fields == null) {
+            return itemService.searchItems(text);
+        }
+        return itemService.searchItems(text, FieldSet.parse(fields, ItemMapper.VIEW_FIELDS));
+    }
+
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggestItems(@RequestParam String prefix,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        return itemService.suggestItems(prefix, limit);
+    }
+
+    @GetMapping("/trending")
+    public List<TrendingItemDto> getTrendingItems(@RequestParam(defaultValue = "day") String window,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        return itemService.getTrendingItems(window, limit);
     }
 
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(
             @PathVariable Long itemId,
             @RequestHeader("X-Sharer-User-Id") Long userId,
-            @Valid @RequestBody CommentDto commentDto) {
-        return itemService.addComment(itemId, userId, commentDto);
+            @Valid @RequestBody CommentDto commentDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, userId, "addComment:" + itemId, commentDto,
+                CommentDto.class, () -> itemService.addComment(itemId, userId, commentDto));
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public CommentPageDto getComments(@PathVariable @Positive Long itemId,
+                                      @RequestParam(required = false) Long cursor,
+                                      @RequestParam(defaultValue = "10") int size) {
+        return itemService.getComments(itemId, cursor, size);
     }
 }
@@ -0,0 +1,235 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.AfterCommit;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Component
+@Slf4j
+public class ItemGeoIndex implements ApplicationRunner {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final ItemRepository itemRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double cellDegrees;
+    private final int rowCount;
+    private final int columnCount;
+    private final Object rebuildLock = new Object();
+    private volatile Grid grid = new Grid();
+    private List<Consumer<Grid>> missed;
+
+    public ItemGeoIndex(ItemRepository itemRepository,
+                        ShardRouter shardRouter,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${shareit.item.geo.cell-size-km:5}") double cellSizeKm,
+                        MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cellDegrees = cellSizeKm / KM_PER_DEGREE;
+        this.rowCount = (int) Math.ceil(180 / cellDegrees) + 1;
+        this.columnCount = (int) Math.ceil(360 / cellDegrees);
+        Gauge.builder("shareit.item.geo.size", this, index -> index.grid.points.size())
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.geo.cells", this, index -> index.grid.cells.size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.geo.rebuild-interval:PT10M}",
+            initialDelayString = "${shareit.item.geo.rebuild-interval:PT10M}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                missed = new ArrayList<>();
+            }
+            try {
+                List<ItemGeoRow> rows = readOnlyTransaction.execute(status ->
+                        shardRouter.scatter(shard -> itemRepository.findGeoRows()));
+                Grid rebuilt = new Grid();
+                for (ItemGeoRow row : rows == null ? List.<ItemGeoRow>of() : rows) {
+                    rebuilt.add(row.getId(), point(row.getOwnerId(), row.getLatitude(), row.getLongitude()));
+                }
+                synchronized (this) {
+                    missed.forEach(change -> change.accept(rebuilt));
+                    grid = rebuilt;
+                    log.info("Геоиндекс вещей перестроен: {} вещей в {} ячейках, применено изменений во время "
+                            + "перестроения: {}", rebuilt.points.size(), rebuilt.cells.size(), missed.size());
+                }
+            } finally {
+                synchronized (this) {
+                    missed = null;
+                }
+            }
+        }
+    }
+
+    public List<Nearby> nearby(double latitude, double longitude, double radiusKm) {
+        Grid current = grid;
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        double latitudeSpan = Math.toDegrees(angularRadius);
+        int fromRow = row(Math.max(latitude - latitudeSpan, -90));
+        int toRow = row(Math.min(latitude + latitudeSpan, 90));
+
+        int fromColumn = 0;
+        int columnsToScan = columnCount;
+        double ratio = Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude));
+        if (Math.abs(latitude) + latitudeSpan < 90 && ratio < 1) {
+            double longitudeSpan = Math.toDegrees(Math.asin(ratio));
+            fromColumn = (int) Math.floor((longitude - longitudeSpan + 180) / cellDegrees);
+            int toColumn = (int) Math.floor((longitude + longitudeSpan + 180) / cellDegrees);
+            columnsToScan = Math.min(columnCount, toColumn - fromColumn + 1);
+        }
+
+        Map<Long, Double> found = new HashMap<>();
+        long cellsToScan = (long) (toRow - fromRow + 1) * columnsToScan;
+        if (cellsToScan > current.cells.size()) {
+            for (Map.Entry<Long, Set<Long>> cell : current.cells.entrySet()) {
+                int row = (int) (cell.getKey() / columnCount);
+                int column = (int) (cell.getKey() % columnCount);
+                if (row >= fromRow && row <= toRow
+                        && Math.floorMod(column - fromColumn, columnCount) < columnsToScan) {
+                    collect(current, cell.getValue(), latitude, longitude, radiusKm, found);
+                }
+            }
+        } else {
+            for (int row = fromRow; row <= toRow; row++) {
+                for (int offset = 0; offset < columnsToScan; offset++) {
+                    Set<Long> ids = current.cells.get(cellKey(row, Math.floorMod(fromColumn + offset, columnCount)));
+                    if (ids != null) {
+                        collect(current, ids, latitude, longitude, radiusKm, found);
+                    }
+                }
+            }
+        }
+
+        List<Nearby> result = new ArrayList<>(found.size());
+        found.forEach((itemId, distance) -> result.add(new Nearby(itemId, distance)));
+        result.sort(Comparator.comparingDouble(Nearby::distanceKm).thenComparing(Nearby::itemId));
+        return result;
+    }
+
+    public void put(Long itemId, Long ownerId, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            remove(itemId);
+            return;
+        }
+        Point point = point(ownerId, latitude, longitude);
+        AfterCommit.run(() -> modify(current -> current.add(itemId, point)));
+    }
+
+    public void remove(Long itemId) {
+        AfterCommit.run(() -> modify(current -> current.remove(itemId)));
+    }
+
+    public void removeOwner(Long ownerId) {
+        AfterCommit.run(() -> modify(current -> current.removeOwner(ownerId)));
+    }
+
+    private synchronized void modify(Consumer<Grid> change) {
+        if (missed != null) {
+            missed.add(change);
+        }
+        change.accept(grid);
+    }
+
+    private void collect(Grid current, Set<Long> ids, double latitude, double longitude, double radiusKm,
+                         Map<Long, Double> found) {
+        for (Long itemId : ids) {
+            Point point = current.points.get(itemId);
+            if (point == null) {
+                continue;
+            }
+            double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+            if (distance <= radiusKm) {
+                found.put(itemId, distance);
+            }
+        }
+    }
+
+    private Point point(Long ownerId, double latitude, double longitude) {
+        int column = Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columnCount);
+        return new Point(ownerId, latitude, longitude, cellKey(row(latitude), column));
+    }
+
+    private int row(double latitude) {
+        return Math.min((int) Math.floor((latitude + 90) / cellDegrees), rowCount - 1);
+    }
+
+    private long cellKey(int row, int column) {
+        return (long) row * columnCount + column;
+    }
+
+    private static double distanceKm(double fromLatitude, double fromLongitude,
+                                     double toLatitude, double toLongitude) {
+        double latitudeDelta = Math.sin(Math.toRadians(toLatitude - fromLatitude) / 2);
+        double longitudeDelta = Math.sin(Math.toRadians(toLongitude - fromLongitude) / 2);
+        double a = latitudeDelta * latitudeDelta + Math.cos(Math.toRadians(fromLatitude))
+                * Math.cos(Math.toRadians(toLatitude)) * longitudeDelta * longitudeDelta;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public record Nearby(Long itemId, double distanceKm) {
+    }
+
+    private record Point(Long ownerId, double latitude, double longitude, long cell) {
+    }
+
+    private static final class Grid {
+        private final Map<Long, Point> points = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+        private void add(Long itemId, Point point) {
+            remove(itemId);
+            points.put(itemId, point);
+            cells.computeIfAbsent(point.cell(), key -> ConcurrentHashMap.newKeySet()).add(itemId);
+        }
+
+        private void remove(Long itemId) {
+            Point previous = points.remove(itemId);
+            if (previous == null) {
+                return;
+            }
+            Set<Long> ids = cells.get(previous.cell());
+            if (ids != null) {
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    cells.remove(previous.cell());
+                }
+            }
+        }
+
+        private void removeOwner(Long ownerId) {
+            List<Long> owned = points.entrySet().stream()
+                    .filter(entry -> entry.getValue().ownerId().equals(ownerId))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            owned.forEach(this::remove);
+        }
+    }
+}
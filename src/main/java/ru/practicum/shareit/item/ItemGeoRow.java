@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item;
+
+public interface ItemGeoRow {
+    Long getId();
+
+    Long getOwnerId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
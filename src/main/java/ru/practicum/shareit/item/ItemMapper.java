@@ -2,21 +2,70 @@ package ru.practicum.shareit.item;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import ru.practicum.shareit.common.FieldSet;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Mapper(componentModel = "spring")
 public interface ItemMapper {
+    Set<String> VIEW_FIELDS = Set.of("id", "name", "description", "available", "ownerId", "requestId",
+            "latitude", "longitude", "lastBooking", "nextBooking", "comments", "commentCount");
+    Set<String> ROW_FIELDS = Set.of("id", "name", "available", "commentCount");
+
     @Mapping(target = "comments", ignore = true)
+    @Mapping(target = "related", ignore = true)
     @Mapping(target = "ownerId", source = "owner.id")
     @Mapping(target = "requestId", source = "request.id")
     ItemDto toDto(Item item);
 
     @Mapping(target = "owner", ignore = true)
     @Mapping(target = "request", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
     Item toEntity(ItemDto itemDto);
 
     List<ItemDto> toDtoList(List<Item> items);
+
+    default Map<String, Object> toView(ItemDto item, FieldSet fields) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        if (fields.contains("id")) view.put("id", item.getId());
+        if (fields.contains("name")) view.put("name", item.getName());
+        if (fields.contains("description")) view.put("description", item.getDescription());
+        if (fields.contains("available")) view.put("available", item.getAvailable());
+        if (fields.contains("ownerId")) view.put("ownerId", item.getOwnerId());
+        if (fields.contains("requestId")) view.put("requestId", item.getRequestId());
+        if (fields.contains("latitude")) view.put("latitude", item.getLatitude());
+        if (fields.contains("longitude")) view.put("longitude", item.getLongitude());
+        if (fields.contains("lastBooking")) view.put("lastBooking", item.getLastBooking());
+        if (fields.contains("nextBooking")) view.put("nextBooking", item.getNextBooking());
+        if (fields.contains("comments")) view.put("comments", item.getComments());
+        if (fields.contains("commentCount")) view.put("commentCount", item.getCommentCount());
+        return view;
+    }
+
+    default List<Map<String, Object>> toViewList(List<ItemDto> items, FieldSet fields) {
+        return items.stream()
+                .map(item -> toView(item, fields))
+                .toList();
+    }
+
+    default Map<String, Object> toView(ItemRow row, FieldSet fields) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        if (fields.contains("id")) view.put("id", row.getId());
+        if (fields.contains("name")) view.put("name", row.getName());
+        if (fields.contains("available")) view.put("available", row.getAvailable());
+        if (fields.contains("commentCount")) view.put("commentCount", row.getCommentCount());
+        return view;
+    }
+
+    default List<Map<String, Object>> toRowViewList(List<ItemRow> rows, FieldSet fields) {
+        return rows.stream()
+                .map(row -> toView(row, fields))
+                .toList();
+    }
 }
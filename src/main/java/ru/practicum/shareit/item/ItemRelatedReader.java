@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+
+import java.util.List;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+@RequiredArgsConstructor
+public class ItemRelatedReader implements ApplicationRunner {
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean available;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jdbcTemplate.queryForList("SELECT item_id FROM item_recommendations WHERE 1 = 0");
+            available = true;
+        } catch (DataAccessException e) {
+            log.warn("Таблица похожих вещей недоступна, карточки отдаются без них: {}", e.getMessage());
+        }
+    }
+
+    public List<ItemSuggestionDto> findRelated(Long itemId) {
+        if (!available) {
+            return List.of();
+        }
+        return itemRepository.findRelatedItems(itemId).stream()
+                .map(row -> new ItemSuggestionDto(row.getId(), row.getName()))
+                .toList();
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item;
+
+public interface ItemRelatedRow {
+    Long getId();
+
+    String getName();
+}
@@ -1,17 +1,23 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.LockModeType;
 import lombok.NonNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item,Long> {
     @NonNull
     List<Item> findByOwnerIdOrderByIdAsc(@NonNull Long ownerId);
 
+    <T> List<T> findByOwnerIdOrderByIdAsc(Long ownerId, Class<T> type);
+
     boolean existsById(@NonNull Long id);
 
     @Query("SELECT i FROM Item i " +
@@ -20,4 +26,66 @@ public interface ItemRepository extends JpaRepository<Item,Long> {
             "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
     @NonNull
     List<Item> searchAvailableItems(@Param("text") String text);
+
+    @Query("SELECT i FROM Item i " +
+            "WHERE i.id IN :ids AND i.available = true " +
+            "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
+            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
+    List<Item> searchAvailableItemsIn(@Param("text") String text, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids AND i.available = true")
+    List<Item> findAvailableByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> lockAllByIdOrderById(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.owner.id AS ownerId, COUNT(b.id) AS bookings " +
+            "FROM Item i LEFT JOIN Booking b ON b.item = i " +
+            "WHERE i.available = true " +
+            "GROUP BY i.id, i.name, i.owner.id")
+    List<ItemSuggestRow> findSuggestRows();
+
+    @Query("SELECT i.id AS id, i.owner.id AS ownerId, i.latitude AS latitude, i.longitude AS longitude " +
+            "FROM Item i " +
+            "WHERE i.available = true AND i.latitude IS NOT NULL AND i.longitude IS NOT NULL")
+    List<ItemGeoRow> findGeoRows();
+
+    @Query(value = "SELECT i.id AS id, i.name AS name FROM item_recommendations r " +
+            "JOIN items i ON i.id = r.related_item_id " +
+            "WHERE r.item_id = :itemId AND i.deleted = false AND i.is_available = true " +
+            "ORDER BY r.score DESC, r.related_item_id",
+            nativeQuery = true)
+    List<ItemRelatedRow> findRelatedItems(@Param("itemId") Long itemId);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.commentCount = i.commentCount + 1 WHERE i.id = :itemId")
+    int incrementCommentCount(@Param("itemId") Long itemId);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.deleted = true WHERE i.owner.id = :ownerId")
+    int markDeletedByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query(value = "SELECT id FROM items WHERE deleted = true ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findDeletedIds(@Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) > 0 FROM items WHERE owner_id = :ownerId", nativeQuery = true)
+    boolean existsAnyByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Modifying
+    @Query(value = "UPDATE items SET comment_count = " +
+            "(SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id) " +
+            "WHERE id IN (:itemIds)",
+            nativeQuery = true)
+    int recountComments(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying
+    @Query(value = "UPDATE items SET request_id = NULL " +
+            "WHERE request_id IN (SELECT r.id FROM requests r WHERE r.requestor_id = :userId)",
+            nativeQuery = true)
+    int detachRequestsOf(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM items WHERE id = :itemId AND deleted = true", nativeQuery = true)
+    int purgeDeleted(@Param("itemId") Long itemId);
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item;
+
+public interface ItemRow {
+    Long getId();
+
+    String getName();
+
+    Boolean getAvailable();
+
+    Integer getCommentCount();
+}
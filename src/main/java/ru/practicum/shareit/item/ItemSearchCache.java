@@ -0,0 +1,137 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.AfterCommit;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@Slf4j
+public class ItemSearchCache {
+    private final int maxEntries;
+    private final long dtoTtlNanos;
+    private final Map<String, Entry> entries;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter invalidationEvictions;
+
+    public ItemSearchCache(@Value("${shareit.item.search-cache.max-entries:500}") int maxEntries,
+                           @Value("${shareit.item.search-cache.dto-ttl:30s}") Duration dtoTtl,
+                           MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.dtoTtlNanos = dtoTtl.toNanos();
+        this.entries = new LinkedHashMap<>(maxEntries * 4 / 3 + 1, 0.75f, true);
+        this.hits = Counter.builder("shareit.item.search.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("shareit.item.search.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.sizeEvictions = Counter.builder("shareit.item.search.cache.evictions")
+                .tag("cause", "size")
+                .register(meterRegistry);
+        this.invalidationEvictions = Counter.builder("shareit.item.search.cache.evictions")
+                .tag("cause", "invalidation")
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.search.cache.hit.ratio", this, ItemSearchCache::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.search.cache.size", this, ItemSearchCache::size)
+                .register(meterRegistry);
+    }
+
+    public long currentVersion() {
+        return invalidations.get();
+    }
+
+    public synchronized Entry get(String searchText) {
+        Entry entry = entries.get(searchText);
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    public synchronized void put(String searchText, long version, List<Long> itemIds, List<ItemDto> dtos) {
+        if (version != invalidations.get()) {
+            log.debug("Результат поиска '{}' устарел до записи в кэш", searchText);
+            return;
+        }
+        entries.put(searchText, new Entry(List.copyOf(itemIds), List.copyOf(dtos), System.nanoTime()));
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    public synchronized void refresh(String searchText, Entry entry, List<ItemDto> dtos) {
+        if (entries.get(searchText) == entry) {
+            entries.put(searchText, new Entry(entry.itemIds(), List.copyOf(dtos), System.nanoTime()));
+        }
+    }
+
+    public boolean isFresh(Entry entry) {
+        return System.nanoTime() - entry.dtosLoadedAt() < dtoTtlNanos;
+    }
+
+    public void invalidateMatching(String... texts) {
+        AfterCommit.run(() -> evictMatching(texts));
+    }
+
+    public void invalidateAll() {
+        AfterCommit.run(this::clear);
+    }
+
+    private synchronized void evictMatching(String... texts) {
+        invalidations.incrementAndGet();
+        List<String> lowered = Arrays.stream(texts)
+                .filter(Objects::nonNull)
+                .map(String::toLowerCase)
+                .toList();
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            String searchText = iterator.next();
+            if (lowered.stream().anyMatch(text -> text.contains(searchText))) {
+                iterator.remove();
+                invalidationEvictions.increment();
+            }
+        }
+    }
+
+    private synchronized void clear() {
+        invalidations.incrementAndGet();
+        invalidationEvictions.increment(entries.size());
+        entries.clear();
+        log.debug("Кэш поиска вещей очищен");
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    public record Entry(List<Long> itemIds, List<ItemDto> dtos, long dtosLoadedAt) {
+    }
+}
@@ -1,28 +1,43 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.common.BatchIds;
+import ru.practicum.shareit.common.FieldSet;
 import ru.practicum.shareit.exception.ForbiddenException;
-import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.invalidation.InvalidationBus;
+import ru.practicum.shareit.invalidation.InvalidationEvent;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.TrendingItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.shard.ShardContext;
+import ru.practicum.shareit.shard.ShardRouter;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,101 +51,235 @@ public class ItemService {
     private final BookingRepository bookingRepository;
     private final CommentMapper commentMapper;
     private final CommentRepository commentRepository;
+    private final ItemSearchCache searchCache;
+    private final ItemViewSingleFlight itemViewSingleFlight;
+    private final ItemSuggestIndex suggestIndex;
+    private final ItemGeoIndex geoIndex;
+    private final ItemRelatedReader relatedReader;
+    private final InvalidationBus invalidationBus;
+    private final ItemTrendingTracker trendingTracker;
+    private final ShardRouter shardRouter;
+
+    @Value("${shareit.item.comments.inline-limit:10}")
+    private int inlineCommentsLimit;
+
+    @Value("${shareit.item.comments.max-page-size:100}")
+    private int maxCommentsPageSize;
+
+    @Value("${shareit.batch.max-ids:100}")
+    private int maxBatchIds;
+
+    @Value("${shareit.item.suggest.max-limit:20}")
+    private int maxSuggestLimit;
+
+    @Value("${shareit.item.trending.max-limit:50}")
+    private int maxTrendingLimit;
+
+    @Value("${shareit.item.geo.default-radius-km:5}")
+    private double defaultGeoRadiusKm;
+
+    @Value("${shareit.item.geo.max-radius-km:50}")
+    private double maxGeoRadiusKm;
+
+    @Value("${shareit.item.geo.max-results:100}")
+    private int maxGeoResults;
+
+    @Value("${shareit.item.geo.candidate-batch:500}")
+    private int geoCandidateBatch;
 
     @Transactional
     public ItemDto createItem(ItemDto itemDto, Long ownerId) {
-        log.info("Создание вещи '{}' для пользователя с ID: {}", itemDto.getName(), ownerId);
-        User owner = userRepository.findById(ownerId)
-                .orElseThrow(() -> {
-                    log.error("Владелец с ID {} не найден", ownerId);
-                    return new NotFoundException("Пользователь не найден");
-                });
+        try (ShardContext.Scope ignored = shardRouter.forOwner(ownerId)) {
+            log.info("Создание вещи '{}' для пользователя с ID: {}", itemDto.getName(), ownerId);
+            User owner = userRepository.findById(ownerId)
+                    .orElseThrow(() -> NotFoundException.USER_NOT_FOUND);
 
-        Item item = itemMapper.toEntity(itemDto);
-        item.setOwner(owner);
+            Item item = itemMapper.toEntity(itemDto);
+            item.setOwner(owner);
+            checkLocation(item);
 
-        Item savedItem = itemRepository.save(item);
-        return itemMapper.toDto(savedItem);
+            Item savedItem = itemRepository.save(item);
+            if (Boolean.TRUE.equals(savedItem.getAvailable())) {
+                searchCache.invalidateMatching(savedItem.getName(), savedItem.getDescription());
+                suggestIndex.put(savedItem.getId(), savedItem.getName(), ownerId);
+                geoIndex.put(savedItem.getId(), ownerId, savedItem.getLatitude(), savedItem.getLongitude());
+                invalidationBus.publish(InvalidationEvent.itemUpserted(savedItem.getId(), ownerId, savedItem.getName(),
+                        true, savedItem.getLatitude(), savedItem.getLongitude(), savedItem.getName(),
+                        savedItem.getDescription()));
+            }
+            return itemMapper.toDto(savedItem);
+        }
     }
 
     @Transactional
     public ItemDto updateItem(Long itemId, UpdateItemDto updateItemDto, Long ownerId) {
-        log.info("Обновление вещи с ID: {}", itemId);
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> {
-                    log.error("Вещь с ID {} не найдена", itemId);
-                    return new NotFoundException("Вещь не найдена");
-                });
+        try (ShardContext.Scope ignored = shardRouter.forId(itemId)) {
+            log.info("Обновление вещи с ID: {}", itemId);
+            Item item = itemRepository.findById(itemId)
+                    .orElseThrow(() -> NotFoundException.ITEM_NOT_FOUND);
 
-        if (!ownerId.equals(item.getOwner().getId())) {
-            log.warn("Попытка обновления чужой вещи. Вещь ID: {}, пользователь ID: {}", itemId, ownerId);
-            throw new ForbiddenException("Нельзя редактировать чужую вещь");
-        }
+            if (!ownerId.equals(item.getOwner().getId())) {
+                throw new ForbiddenException("Нельзя редактировать чужую вещь");
+            }
 
-        if (updateItemDto.getName() != null) item.setName(updateItemDto.getName());
-        if (updateItemDto.getDescription() != null) item.setDescription(updateItemDto.getDescription());
-        if (updateItemDto.getAvailable() != null) item.setAvailable(updateItemDto.getAvailable());
+            String oldName = item.getName();
+            String oldDescription = item.getDescription();
+            Boolean oldAvailable = item.getAvailable();
+            Double oldLatitude = item.getLatitude();
+            Double oldLongitude = item.getLongitude();
 
-        Item updatedItem = itemRepository.save(item);
-        return itemMapper.toDto(updatedItem);
+            if (updateItemDto.getName() != null) item.setName(updateItemDto.getName());
+            if (updateItemDto.getDescription() != null) item.setDescription(updateItemDto.getDescription());
+            if (updateItemDto.getAvailable() != null) item.setAvailable(updateItemDto.getAvailable());
+            if (updateItemDto.getLatitude() != null) item.setLatitude(updateItemDto.getLatitude());
+            if (updateItemDto.getLongitude() != null) item.setLongitude(updateItemDto.getLongitude());
+            checkLocation(item);
+
+            Item updatedItem = itemRepository.save(item);
+            boolean searchableChanged = !Objects.equals(oldName, updatedItem.getName())
+                    || !Objects.equals(oldDescription, updatedItem.getDescription())
+                    || !Objects.equals(oldAvailable, updatedItem.getAvailable());
+            boolean locationChanged = !Objects.equals(oldLatitude, updatedItem.getLatitude())
+                    || !Objects.equals(oldLongitude, updatedItem.getLongitude());
+            if (searchableChanged) {
+                searchCache.invalidateMatching(oldName, oldDescription, updatedItem.getName(),
+                        updatedItem.getDescription());
+            }
+            if (searchableChanged || locationChanged) {
+                invalidationBus.publish(InvalidationEvent.itemUpserted(itemId, ownerId, updatedItem.getName(),
+                        updatedItem.getAvailable(), updatedItem.getLatitude(), updatedItem.getLongitude(),
+                        oldName, oldDescription, updatedItem.getName(), updatedItem.getDescription()));
+            }
+            if (locationChanged || !Objects.equals(oldAvailable, updatedItem.getAvailable())) {
+                if (Boolean.TRUE.equals(updatedItem.getAvailable())) {
+                    geoIndex.put(itemId, ownerId, updatedItem.getLatitude(), updatedItem.getLongitude());
+                } else {
+                    geoIndex.remove(itemId);
+                }
+            }
+            if (!Objects.equals(oldName, updatedItem.getName())
+                    || !Objects.equals(oldAvailable, updatedItem.getAvailable())) {
+                if (Boolean.TRUE.equals(updatedItem.getAvailable())) {
+                    suggestIndex.put(itemId, updatedItem.getName(), ownerId);
+                } else {
+                    suggestIndex.remove(itemId);
+                }
+            }
+            itemViewSingleFlight.invalidate(itemId);
+            return itemMapper.toDto(updatedItem);
+        }
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ItemDto getItemById(Long itemId, Long userId) {
-        log.info("Получение вещи ID {} пользователем ID {}", itemId, userId);
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new ItemNotFoundException("Вещь не найдена"));
+        try (ShardContext.Scope ignored = shardRouter.forId(itemId)) {
+            log.info("Получение вещи ID {} пользователем ID {}", itemId, userId);
+            ItemDto itemDto = itemViewSingleFlight.load(itemId, false, () -> loadItemView(itemId));
+            trendingTracker.recordView(itemId);
 
-        ItemDto itemDto = itemMapper.toDto(item);
+            if (itemDto.getOwnerId().equals(userId)) {
+                log.debug("Пользователь ID {} является владельцем вещи ID {}", userId, itemId);
+                ItemDto publicView = itemDto;
+                itemDto = itemViewSingleFlight.load(itemId, true, () -> withBookings(publicView));
+            }
 
-        List<Comment> comments = commentRepository.findByItemId(itemId);
-        log.debug("Найдено {} комментариев для вещи ID {}", comments.size(), itemId);
-        itemDto.setComments(comments.stream()
-                .map(commentMapper::toDto)
-                .collect(Collectors.toList()));
+            log.info("Успешно возвращена вещь ID {}", itemId);
+            return itemDto;
+        }
+    }
+
+    public List<ItemDto> getItemsByIds(List<Long> itemIds, Long userId) {
+        List<Long> ids = BatchIds.normalize(itemIds, maxBatchIds);
+        log.info("Получение {} вещей по списку ID пользователем ID {}", ids.size(), userId);
+
+        List<ItemDto> result = BatchIds.inRequestedOrder(ids,
+                shardRouter.scatterByIds(ids, shardIds -> loadItems(shardIds, userId)), ItemDto::getId);
+        log.info("Возвращено {} из {} запрошенных вещей", result.size(), ids.size());
+        return result;
+    }
 
-        if (item.getOwner().getId().equals(userId)) {
-            log.debug("Пользователь ID {} является владельцем вещи ID {}", userId, itemId);
+    private List<ItemDto> loadItems(List<Long> ids, Long userId) {
+        List<Item> items = itemRepository.findAllById(ids);
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> foundIds = items.stream().map(Item::getId).toList();
+
+        Map<Long, List<CommentDto>> commentsByItem = commentRepository
+                .findLatestByItemIdIn(foundIds, inlineCommentsLimit).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toDto, Collectors.toList())));
+
+        List<Long> ownedIds = items.stream()
+                .filter(item -> item.getOwner().getId().equals(userId))
+                .map(Item::getId)
+                .toList();
+        Map<Long, BookingShortDto> lastBookings = Collections.emptyMap();
+        Map<Long, BookingShortDto> nextBookings = Collections.emptyMap();
+        if (!ownedIds.isEmpty()) {
             LocalDateTime now = LocalDateTime.now();
-            itemDto.setLastBooking(toBookingShortDto(
-                    bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(
-                            itemId, now, BookingStatus.APPROVED)));
-            itemDto.setNextBooking(toBookingShortDto(
-                    bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-                            itemId, now, BookingStatus.APPROVED)));
+            lastBookings = byItem(bookingRepository.findLastBookingsForItems(ownedIds, now, BookingStatus.APPROVED));
+            nextBookings = byItem(bookingRepository.findNextBookingsForItems(ownedIds, now, BookingStatus.APPROVED));
         }
 
-        log.info("Успешно возвращена вещь ID {}", itemId);
-        return itemDto;
+        List<ItemDto> result = new ArrayList<>(items.size());
+        for (Item item : items) {
+            ItemDto itemDto = itemMapper.toDto(item);
+            itemDto.setComments(commentsByItem.getOrDefault(item.getId(), new ArrayList<>()));
+            itemDto.setLastBooking(lastBookings.get(item.getId()));
+            itemDto.setNextBooking(nextBookings.get(item.getId()));
+            result.add(itemDto);
+        }
+        return result;
     }
 
     List<ItemDto> getAllItemsByOwner(Long ownerId) {
-        log.info("Получение всех вещей владельца ID {}", ownerId);
-        if (!userRepository.existsById(ownerId)) {
-            log.warn("Владелец с ID {} не найден, возвращен пустой список", ownerId);
-            return Collections.emptyList();
+        return itemMapper.toDtoList(findItemsByOwner(ownerId, Item.class));
+    }
+
+    List<Map<String, Object>> getAllItemsByOwner(Long ownerId, FieldSet fields) {
+        if (fields.within(ItemMapper.ROW_FIELDS)) {
+            return itemMapper.toRowViewList(findItemsByOwner(ownerId, ItemRow.class), fields);
         }
+        return itemMapper.toViewList(getAllItemsByOwner(ownerId), fields);
+    }
 
-        List<Item> items = itemRepository.findByOwnerIdOrderByIdAsc(ownerId);
+    private <E> List<E> findItemsByOwner(Long ownerId, Class<E> type) {
+        try (ShardContext.Scope ignored = shardRouter.forOwner(ownerId)) {
+            log.info("Получение всех вещей владельца ID {}", ownerId);
+            if (!userRepository.existsById(ownerId)) {
+                log.warn("Владелец с ID {} не найден, возвращен пустой список", ownerId);
+                return Collections.emptyList();
+            }
 
-        if (items.isEmpty()) {
-            log.debug("У владельца ID {} не найдено вещей", ownerId);
-            return Collections.emptyList();
-        }
+            List<E> items = itemRepository.findByOwnerIdOrderByIdAsc(ownerId, type);
+
+            if (items.isEmpty()) {
+                log.debug("У владельца ID {} не найдено вещей", ownerId);
+                return Collections.emptyList();
+            }
 
-        log.info("Найдено {} вещей владельца ID {}", items.size(), ownerId);
-        return itemMapper.toDtoList(items);
+            log.info("Найдено {} вещей владельца ID {}", items.size(), ownerId);
+            return items;
+        }
     }
 
     @Transactional
     public void deleteItem(Long itemId) {
-        log.info("Удаление вещи с ID: {}", itemId);
-        if (!itemRepository.existsById(itemId)) {
-            log.error("Попытка удаления несуществующей вещи с ID: {}", itemId);
-            throw new ItemNotFoundException("Вещь не найдена");
+        try (ShardContext.Scope ignored = shardRouter.forId(itemId)) {
+            log.info("Удаление вещи с ID: {}", itemId);
+            Item item = itemRepository.findById(itemId)
+                    .orElseThrow(() -> NotFoundException.ITEM_NOT_FOUND);
+            item.setDeleted(true);
+            searchCache.invalidateMatching(item.getName(), item.getDescription());
+            suggestIndex.remove(itemId);
+            geoIndex.remove(itemId);
+            itemViewSingleFlight.invalidate(itemId);
+            invalidationBus.publish(InvalidationEvent.itemDeleted(itemId, item.getName(), item.getDescription()));
         }
-        itemRepository.deleteById(itemId);
     }
 
+    @Transactional(readOnly = true, timeoutString = "${shareit.timeout.item-search:2}")
     List<ItemDto> searchItems(String text) {
         log.info("Поиск доступных вещей по запросу: '{}'", text);
         if (text == null || text.isBlank()) {
@@ -139,43 +288,215 @@ public class ItemService {
         }
 
         String searchText = text.toLowerCase();
-        List<Item> items = itemRepository.searchAvailableItems(searchText);
-        log.debug("Найдено {} вещей по запросу '{}'", items.size(), text);
+        ItemSearchCache.Entry cached = searchCache.get(searchText);
+        if (cached != null) {
+            if (searchCache.isFresh(cached)) {
+                log.debug("Результат поиска '{}' получен из кэша", text);
+                return cached.dtos();
+            }
+            List<ItemDto> result = loadAvailableInOrder(cached.itemIds());
+            searchCache.refresh(searchText, cached, result);
+            log.debug("Обновлены данные {} вещей из кэша поиска по запросу '{}'", result.size(), text);
+            return result;
+        }
 
-        List<ItemDto> result = items.stream()
-                .filter(Item::getAvailable)
-                .map(itemMapper::toDto)
-                .collect(Collectors.toList());
+        long cacheVersion = searchCache.currentVersion();
+        List<ItemDto> result = shardRouter.scatter(shard -> {
+            List<Item> items = itemRepository.searchAvailableItems(searchText);
+            log.debug("Найдено {} вещей по запросу '{}' на шарде {}", items.size(), text, shard);
+            return itemMapper.toDtoList(items.stream()
+                    .filter(Item::getAvailable)
+                    .toList());
+        });
+        searchCache.put(searchText, cacheVersion, result.stream().map(ItemDto::getId).toList(), result);
 
         log.info("Возвращено {} доступных вещей по запросу '{}'", result.size(), text);
         return result;
     }
 
+    @Transactional(readOnly = true, timeoutString = "${shareit.timeout.item-search:2}")
+    List<Map<String, Object>> searchItems(String text, FieldSet fields) {
+        return itemMapper.toViewList(searchItems(text), fields);
+    }
+
+    @Transactional(readOnly = true, timeoutString = "${shareit.timeout.item-search:2}")
+    List<ItemDto> searchItemsNearby(String text, Double latitude, Double longitude, Double radiusKm) {
+        if (latitude == null || longitude == null) {
+            throw new ValidationException("Для поиска рядом нужно указать широту и долготу");
+        }
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new ValidationException("Некорректные координаты: широта от -90 до 90, долгота от -180 до 180");
+        }
+        double radius = radiusKm == null ? defaultGeoRadiusKm : radiusKm;
+        if (radius <= 0 || radius > maxGeoRadiusKm) {
+            throw new ValidationException("Радиус поиска должен быть больше 0 и не больше " + maxGeoRadiusKm + " км");
+        }
+        log.info("Поиск доступных вещей по запросу '{}' в радиусе {} км от ({}, {})", text, radius, latitude,
+                longitude);
+
+        String searchText = text == null ? "" : text.strip().toLowerCase();
+        List<Long> candidates = geoIndex.nearby(latitude, longitude, radius).stream()
+                .map(ItemGeoIndex.Nearby::itemId)
+                .toList();
+        log.debug("В радиусе {} км найдено {} кандидатов", radius, candidates.size());
+
+        List<ItemDto> result = new ArrayList<>();
+        for (int from = 0; from < candidates.size() && result.size() < maxGeoResults; from += geoCandidateBatch) {
+            List<Long> batch = candidates.subList(from, Math.min(from + geoCandidateBatch, candidates.size()));
+            List<ItemDto> found = shardRouter.scatterByIds(batch, shardIds -> itemMapper.toDtoList(
+                    searchText.isEmpty()
+                            ? itemRepository.findAvailableByIdIn(shardIds)
+                            : itemRepository.searchAvailableItemsIn(searchText, shardIds)));
+            result.addAll(BatchIds.inRequestedOrder(batch, found, ItemDto::getId));
+        }
+        if (result.size() > maxGeoResults) {
+            result = new ArrayList<>(result.subList(0, maxGeoResults));
+        }
+
+        log.info("Возвращено {} доступных вещей рядом по запросу '{}'", result.size(), text);
+        return result;
+    }
+
+    @Transactional(readOnly = true, timeoutString = "${shareit.timeout.item-search:2}")
+    List<Map<String, Object>> searchItemsNearby(String text, Double latitude, Double longitude, Double radiusKm,
+                                                FieldSet fields) {
+        return itemMapper.toViewList(searchItemsNearby(text, latitude, longitude, radiusKm), fields);
+    }
+
+    public List<TrendingItemDto> getTrendingItems(String window, int limit) {
+        if (limit < 1 || limit > maxTrendingLimit) {
+            throw new ValidationException("Количество вещей должно быть от 1 до " + maxTrendingLimit);
+        }
+        List<ItemTrendingTracker.Trend> trends = trendingTracker.top(window, limit * 2);
+        Map<Long, String> available = shardRouter.scatterByIds(trends.stream()
+                        .map(ItemTrendingTracker.Trend::itemId)
+                        .toList(), itemRepository::findAllById).stream()
+                .filter(Item::getAvailable)
+                .collect(Collectors.toMap(Item::getId, Item::getName));
+        return trends.stream()
+                .filter(trend -> available.containsKey(trend.itemId()))
+                .limit(limit)
+                .map(trend -> new TrendingItemDto(trend.itemId(), available.get(trend.itemId()),
+                        trend.score()))
+                .toList();
+    }
+
+    public List<ItemSuggestionDto> suggestItems(String prefix, int limit) {
+        if (limit < 1 || limit > maxSuggestLimit) {
+            throw new ValidationException("Количество подсказок должно быть от 1 до " + maxSuggestLimit);
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        return suggestIndex.suggest(prefix.strip(), limit);
+    }
+
     @Transactional
     public CommentDto addComment(Long itemId, Long userId, CommentDto commentDto) {
-        log.info("Добавление комментария к вещи ID {} пользователем ID {}", itemId, userId);
-        User author = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+        try (ShardContext.Scope ignored = shardRouter.forId(itemId)) {
+            log.info("Добавление комментария к вещи ID {} пользователем ID {}", itemId, userId);
+            User author = userRepository.findById(userId)
+                    .orElseThrow(() -> NotFoundException.USER_NOT_FOUND);
+            Item item = itemRepository.findById(itemId)
+                    .orElseThrow(() -> NotFoundException.ITEM_NOT_FOUND);
+
+            List<Booking> pastBookings = bookingRepository.findPastApprovedBookingsForItemAndUser(
+                    itemId,
+                    userId,
+                    LocalDateTime.now(),
+                    BookingStatus.APPROVED);
+
+            if (pastBookings.isEmpty()) {
+                throw new ValidationException("Нельзя оставить комментарий к неарендованной вещи");
+            }
 
-        List<Booking> pastBookings = bookingRepository.findPastApprovedBookingsForItemAndUser(
-                itemId,
-                userId,
-                LocalDateTime.now(),
-                BookingStatus.APPROVED);
+            Comment comment = commentMapper.toEntity(commentDto, author, item);
+            Comment savedComment = commentRepository.save(comment);
+            itemRepository.incrementCommentCount(itemId);
+            itemViewSingleFlight.invalidate(itemId);
+            invalidationBus.publish(InvalidationEvent.itemViewChanged(itemId));
+            log.info("Комментарий ID {} успешно добавлен к вещи ID {}", savedComment.getId(), itemId);
 
-        if (pastBookings.isEmpty()) {
-            log.warn("Попытка оставить комментарий к неарендованной вещи. Вещь ID: {}," +
-                    " пользователь ID: {}", itemId, userId);
-            throw new ValidationException("Нельзя оставить комментарий к неарендованной вещи");
+            return commentMapper.toDto(savedComment);
         }
+    }
+
+    public CommentPageDto getComments(Long itemId, Long cursor, int size) {
+        try (ShardContext.Scope ignored = shardRouter.forId(itemId)) {
+            log.info("Получение комментариев вещи ID {}, cursor={}, size={}", itemId, cursor, size);
+            if (size <= 0 || size > maxCommentsPageSize) {
+                throw new ValidationException("Размер страницы должен быть от 1 до " + maxCommentsPageSize);
+            }
+            if (!itemRepository.existsById(itemId)) {
+                throw NotFoundException.ITEM_NOT_FOUND;
+            }
+
+            PageRequest page = PageRequest.of(0, size);
+            List<Comment> comments = cursor == null
+                    ? commentRepository.findLatestByItemId(itemId, page)
+                    : commentRepository.findByItemIdBefore(itemId, cursor, page);
+
+            Long nextCursor = comments.size() < size ? null : comments.get(comments.size() - 1).getId();
+            return CommentPageDto.builder()
+                    .comments(comments.stream()
+                            .map(commentMapper::toDto)
+                            .collect(Collectors.toList()))
+                    .nextCursor(nextCursor)
+                    .build();
+        }
+    }
 
-        Comment comment = commentMapper.toEntity(commentDto, author, item);
-        Comment savedComment = commentRepository.save(comment);
-        log.info("Комментарий ID {} успешно добавлен к вещи ID {}", savedComment.getId(), itemId);
+    private ItemDto loadItemView(Long itemId) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> NotFoundException.ITEM_NOT_FOUND);
+
+        ItemDto itemDto = itemMapper.toDto(item);
+
+        List<Comment> comments = commentRepository.findLatestByItemId(itemId,
+                PageRequest.of(0, inlineCommentsLimit));
+        log.debug("Загружено {} из {} комментариев для вещи ID {}",
+                comments.size(), item.getCommentCount(), itemId);
+        List<CommentDto> commentDtos = comments.stream()
+                .map(commentMapper::toDto)
+                .collect(Collectors.toList());
+        Collections.reverse(commentDtos);
+        itemDto.setComments(commentDtos);
+        itemDto.setRelated(relatedReader.findRelated(itemId));
+        return itemDto;
+    }
+
+    private ItemDto withBookings(ItemDto itemDto) {
+        LocalDateTime now = LocalDateTime.now();
+        return itemDto.toBuilder()
+                .lastBooking(toBookingShortDto(
+                        bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(
+                                itemDto.getId(), now, BookingStatus.APPROVED)))
+                .nextBooking(toBookingShortDto(
+                        bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
+                                itemDto.getId(), now, BookingStatus.APPROVED)))
+                .build();
+    }
+
+    private List<ItemDto> loadAvailableInOrder(List<Long> itemIds) {
+        Map<Long, ItemDto> itemsById = shardRouter.scatterByIds(itemIds, shardIds -> itemMapper.toDtoList(
+                        itemRepository.findAllById(shardIds))).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        return itemIds.stream()
+                .map(itemsById::get)
+                .filter(item -> item != null && item.getAvailable())
+                .collect(Collectors.toList());
+    }
+
+    private void checkLocation(Item item) {
+        if ((item.getLatitude() == null) != (item.getLongitude() == null)) {
+            throw new ValidationException("Широта и долгота вещи указываются вместе");
+        }
+    }
 
-        return commentMapper.toDto(savedComment);
+    private Map<Long, BookingShortDto> byItem(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), this::toBookingShortDto,
+                        (first, second) -> first));
     }
 
     private BookingShortDto toBookingShortDto(Booking booking) {
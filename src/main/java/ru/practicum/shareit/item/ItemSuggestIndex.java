@@ -0,0 +1,362 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.AfterCommit;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+@Component
+@Slf4j
+public class ItemSuggestIndex implements ApplicationRunner {
+    private static final Comparator<Entry> NAME_ORDER = Comparator
+            .comparing(Entry::name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingLong(Entry::id);
+    private static final Comparator<Entry> SUGGEST_ORDER = Comparator
+            .comparingInt((Entry entry) -> -entry.popularity())
+            .thenComparing(NAME_ORDER);
+
+    private final ItemRepository itemRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int mergeThreshold;
+    private final Object rebuildLock = new Object();
+    private volatile State state = new State(Snapshot.EMPTY, Overlay.EMPTY);
+    private List<UnaryOperator<State>> missed;
+
+    public ItemSuggestIndex(ItemRepository itemRepository,
+                            ShardRouter shardRouter,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${shareit.item.suggest.merge-threshold:1024}") int mergeThreshold,
+                            MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.mergeThreshold = mergeThreshold;
+        Gauge.builder("shareit.item.suggest.size", this, index -> index.state.base().size())
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.suggest.overlay", this, index -> index.state.overlay().size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.suggest.rebuild-interval:PT10M}",
+            initialDelayString = "${shareit.item.suggest.rebuild-interval:PT10M}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                missed = new ArrayList<>();
+            }
+            try {
+                List<ItemSuggestRow> rows = readOnlyTransaction.execute(status ->
+                        shardRouter.scatter(shard -> itemRepository.findSuggestRows()));
+                Snapshot rebuilt = Snapshot.of(rows == null ? List.of() : rows);
+                synchronized (this) {
+                    State current = new State(rebuilt, Overlay.EMPTY);
+                    for (UnaryOperator<State> change : missed) {
+                        current = change.apply(current);
+                    }
+                    state = current.merged();
+                    log.info("Индекс подсказок перестроен: {} вещей, применено изменений во время перестроения: {}",
+                            state.base().size(), missed.size());
+                }
+            } finally {
+                synchronized (this) {
+                    missed = null;
+                }
+            }
+        }
+    }
+
+    public List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        return state.suggest(prefix, limit);
+    }
+
+    public void put(Long itemId, String name, Long ownerId) {
+        AfterCommit.run(() -> modify(current -> current.put(itemId, ownerId, name)));
+    }
+
+    public void remove(Long itemId) {
+        AfterCommit.run(() -> modify(current -> current.remove(itemId)));
+    }
+
+    public void removeOwner(Long ownerId) {
+        AfterCommit.run(() -> modify(current -> current.removeOwner(ownerId)));
+    }
+
+    private synchronized void modify(UnaryOperator<State> change) {
+        if (missed != null) {
+            missed.add(change);
+        }
+        State changed = change.apply(state);
+        state = changed.overlay().size() > mergeThreshold ? changed.merged() : changed;
+    }
+
+    private record Entry(long id, long ownerId, String name, int popularity) {
+    }
+
+    private record State(Snapshot base, Overlay overlay) {
+        private State put(long itemId, long ownerId, String name) {
+            Entry previous = overlay.upserts().get(itemId);
+            int slot = base.slotOf(itemId);
+            int popularity = previous != null ? previous.popularity() : slot < 0 ? 0 : base.popularity[slot];
+            return new State(base, overlay.with(new Entry(itemId, ownerId, name, popularity), slot >= 0));
+        }
+
+        private State remove(long itemId) {
+            return new State(base, overlay.without(itemId, base.slotOf(itemId) >= 0));
+        }
+
+        private State removeOwner(long ownerId) {
+            return new State(base, overlay.withoutOwner(ownerId));
+        }
+
+        private State merged() {
+            return overlay.size() == 0 ? this : new State(base.merge(overlay), Overlay.EMPTY);
+        }
+
+        private List<ItemSuggestionDto> suggest(String prefix, int limit) {
+            int from = base.lowerBound(prefix);
+            int to = base.upperBound(prefix, from);
+            List<Entry> found = base.top(from, to, limit, overlay);
+            for (Entry entry : overlay.upserts().values()) {
+                if (entry.name().regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    found.add(entry);
+                }
+            }
+            return found.stream()
+                    .sorted(SUGGEST_ORDER)
+                    .limit(limit)
+                    .map(entry -> new ItemSuggestionDto(entry.id(), entry.name()))
+                    .toList();
+        }
+    }
+
+    private record Overlay(Map<Long, Entry> upserts, Set<Long> hidden, Set<Long> removedOwners) {
+        private static final Overlay EMPTY = new Overlay(Map.of(), Set.of(), Set.of());
+
+        private int size() {
+            return upserts.size() + hidden.size() + removedOwners.size();
+        }
+
+        private boolean hides(long itemId, long ownerId) {
+            return hidden.contains(itemId) || removedOwners.contains(ownerId);
+        }
+
+        private Overlay with(Entry entry, boolean inBase) {
+            Map<Long, Entry> newUpserts = new HashMap<>(upserts);
+            newUpserts.put(entry.id(), entry);
+            return new Overlay(newUpserts, inBase ? plus(hidden, entry.id()) : hidden, removedOwners);
+        }
+
+        private Overlay without(long itemId, boolean inBase) {
+            Map<Long, Entry> newUpserts = upserts;
+            if (upserts.containsKey(itemId)) {
+                newUpserts = new HashMap<>(upserts);
+                newUpserts.remove(itemId);
+            }
+            return new Overlay(newUpserts, inBase ? plus(hidden, itemId) : hidden, removedOwners);
+        }
+
+        private Overlay withoutOwner(long ownerId) {
+            Map<Long, Entry> newUpserts = new HashMap<>(upserts);
+            newUpserts.values().removeIf(entry -> entry.ownerId() == ownerId);
+            return new Overlay(newUpserts, hidden, plus(removedOwners, ownerId));
+        }
+
+        private static Set<Long> plus(Set<Long> set, long value) {
+            if (set.contains(value)) {
+                return set;
+            }
+            Set<Long> result = new HashSet<>(set);
+            result.add(value);
+            return result;
+        }
+    }
+
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new long[0], new long[0], new String[0], new int[0]);
+
+        private final long[] ids;
+        private final long[] ownerIds;
+        private final String[] names;
+        private final int[] popularity;
+        private final Map<Long, Integer> slots;
+        private final int leaves;
+        private final int[] tree;
+
+        private Snapshot(long[] ids, long[] ownerIds, String[] names, int[] popularity) {
+            this.ids = ids;
+            this.ownerIds = ownerIds;
+            this.names = names;
+            this.popularity = popularity;
+            this.slots = new HashMap<>(ids.length * 4 / 3 + 1);
+            for (int i = 0; i < ids.length; i++) {
+                slots.put(ids[i], i);
+            }
+            this.leaves = ids.length <= 1 ? 1 : Integer.highestOneBit(ids.length - 1) << 1;
+            this.tree = new int[2 * leaves];
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < ids.length; i++) {
+                tree[leaves + i] = i;
+            }
+            for (int node = leaves - 1; node > 0; node--) {
+                tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        private static Snapshot of(List<ItemSuggestRow> rows) {
+            List<Entry> entries = new ArrayList<>(rows.size());
+            for (ItemSuggestRow row : rows) {
+                entries.add(new Entry(row.getId(), row.getOwnerId(), row.getName(),
+                        (int) Math.min(Integer.MAX_VALUE, row.getBookings())));
+            }
+            entries.sort(NAME_ORDER);
+            return ofSorted(entries);
+        }
+
+        private static Snapshot ofSorted(List<Entry> sorted) {
+            int size = sorted.size();
+            long[] ids = new long[size];
+            long[] ownerIds = new long[size];
+            String[] names = new String[size];
+            int[] popularity = new int[size];
+            for (int i = 0; i < size; i++) {
+                Entry entry = sorted.get(i);
+                ids[i] = entry.id();
+                ownerIds[i] = entry.ownerId();
+                names[i] = entry.name();
+                popularity[i] = entry.popularity();
+            }
+            return new Snapshot(ids, ownerIds, names, popularity);
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        private int slotOf(long itemId) {
+            Integer slot = slots.get(itemId);
+            return slot == null ? -1 : slot;
+        }
+
+        private Entry entry(int index) {
+            return new Entry(ids[index], ownerIds[index], names[index], popularity[index]);
+        }
+
+        private Snapshot merge(Overlay overlay) {
+            List<Entry> added = new ArrayList<>(overlay.upserts().values());
+            added.sort(NAME_ORDER);
+            List<Entry> merged = new ArrayList<>(ids.length + added.size());
+            int next = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (overlay.hides(ids[i], ownerIds[i])) {
+                    continue;
+                }
+                Entry entry = entry(i);
+                while (next < added.size() && NAME_ORDER.compare(added.get(next), entry) < 0) {
+                    merged.add(added.get(next++));
+                }
+                merged.add(entry);
+            }
+            merged.addAll(added.subList(next, added.size()));
+            return ofSorted(merged);
+        }
+
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = names.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (String.CASE_INSENSITIVE_ORDER.compare(names[middle], prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int upperBound(String prefix, int from) {
+            int low = from;
+            int high = names.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (names[middle].regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private List<Entry> top(int from, int to, int limit, Overlay overlay) {
+            List<Entry> result = new ArrayList<>(Math.min(limit, Math.max(0, to - from)));
+            if (from >= to) {
+                return result;
+            }
+            PriorityQueue<Integer> nodes = new PriorityQueue<>(Comparator
+                    .comparingInt((Integer node) -> -popularity[tree[node]])
+                    .thenComparingInt(node -> tree[node]));
+            for (int left = from + leaves, right = to + leaves; left < right; left >>= 1, right >>= 1) {
+                if ((left & 1) == 1) {
+                    nodes.add(left++);
+                }
+                if ((right & 1) == 1) {
+                    nodes.add(--right);
+                }
+            }
+            while (!nodes.isEmpty() && result.size() < limit) {
+                int node = nodes.poll();
+                if (node >= leaves) {
+                    int index = tree[node];
+                    if (!overlay.hides(ids[index], ownerIds[index])) {
+                        result.add(entry(index));
+                    }
+                } else {
+                    for (int child = 2 * node; child <= 2 * node + 1; child++) {
+                        if (tree[child] >= 0) {
+                            nodes.add(child);
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        private int better(int left, int right) {
+            if (left < 0) {
+                return right;
+            }
+            if (right < 0) {
+                return left;
+            }
+            return popularity[right] > popularity[left] ? right : left;
+        }
+    }
+}
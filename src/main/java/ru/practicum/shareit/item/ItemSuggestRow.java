@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item;
+
+public interface ItemSuggestRow {
+    Long getId();
+
+    String getName();
+
+    Long getOwnerId();
+
+    Long getBookings();
+}
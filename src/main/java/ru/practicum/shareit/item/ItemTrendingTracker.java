@@ -0,0 +1,157 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.AfterCommit;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class ItemTrendingTracker {
+    private final Map<String, Window> windows = new LinkedHashMap<>();
+    private final long viewWeight;
+    private final long bookingWeight;
+    private final long approvalWeight;
+
+    public ItemTrendingTracker(@Value("${shareit.item.trending.windows:hour=PT1H,day=P1D,week=P7D}") String windows,
+                               @Value("${shareit.item.trending.buckets:12}") int buckets,
+                               @Value("${shareit.item.trending.bucket-capacity:256}") int bucketCapacity,
+                               @Value("${shareit.item.trending.view-weight:1}") long viewWeight,
+                               @Value("${shareit.item.trending.booking-weight:5}") long bookingWeight,
+                               @Value("${shareit.item.trending.approval-weight:5}") long approvalWeight) {
+        for (String window : windows.split(",")) {
+            String[] parts = window.strip().split("=");
+            Duration length = Duration.parse(parts[1].strip());
+            this.windows.put(parts[0].strip(), new Window(length.toMillis() / buckets, buckets, bucketCapacity));
+        }
+        this.viewWeight = viewWeight;
+        this.bookingWeight = bookingWeight;
+        this.approvalWeight = approvalWeight;
+    }
+
+    public void recordView(Long itemId) {
+        record(itemId, viewWeight);
+    }
+
+    public void recordBooking(Long itemId) {
+        AfterCommit.run(() -> record(itemId, bookingWeight));
+    }
+
+    public void recordApproval(Long itemId) {
+        AfterCommit.run(() -> record(itemId, approvalWeight));
+    }
+
+    public List<Trend> top(String window, int limit) {
+        Window selected = windows.get(window);
+        if (selected == null) {
+            throw new ValidationException("Неизвестное окно " + window + ", доступны: " + windows.keySet());
+        }
+        return selected.top(System.currentTimeMillis(), limit);
+    }
+
+    public List<Trend> top(int limit) {
+        return windows.values().stream()
+                .max(Comparator.comparingLong(window -> window.bucketMillis))
+                .map(window -> window.top(System.currentTimeMillis(), limit))
+                .orElse(List.of());
+    }
+
+    private void record(Long itemId, long weight) {
+        long now = System.currentTimeMillis();
+        for (Window window : windows.values()) {
+            window.add(now, itemId, weight);
+        }
+    }
+
+    private static final class Window {
+        private final long bucketMillis;
+        private final Bucket[] buckets;
+
+        private Window(long bucketMillis, int buckets, int bucketCapacity) {
+            this.bucketMillis = Math.max(1, bucketMillis);
+            this.buckets = new Bucket[buckets];
+            for (int i = 0; i < buckets; i++) {
+                this.buckets[i] = new Bucket(bucketCapacity);
+            }
+        }
+
+        private void add(long now, long itemId, long weight) {
+            long epoch = now / bucketMillis;
+            buckets[(int) (epoch % buckets.length)].add(epoch, itemId, weight);
+        }
+
+        private List<Trend> top(long now, int limit) {
+            long epoch = now / bucketMillis;
+            Map<Long, Long> totals = new HashMap<>();
+            for (Bucket bucket : buckets) {
+                bucket.addTo(totals, epoch - buckets.length + 1);
+            }
+            List<Trend> ranked = new ArrayList<>(totals.size());
+            totals.forEach((itemId, score) -> ranked.add(new Trend(itemId, score)));
+            ranked.sort(Comparator.comparingLong(Trend::score).reversed().thenComparingLong(Trend::itemId));
+            return ranked.subList(0, Math.min(limit, ranked.size()));
+        }
+    }
+
+    private static final class Bucket {
+        private final long[] itemIds;
+        private final long[] counts;
+        private final Map<Long, Integer> slots;
+        private long epoch = -1;
+        private int size;
+
+        private Bucket(int capacity) {
+            this.itemIds = new long[capacity];
+            this.counts = new long[capacity];
+            this.slots = new HashMap<>(capacity * 2);
+        }
+
+        private synchronized void add(long currentEpoch, long itemId, long weight) {
+            if (epoch != currentEpoch) {
+                epoch = currentEpoch;
+                size = 0;
+                slots.clear();
+            }
+            Integer slot = slots.get(itemId);
+            if (slot != null) {
+                counts[slot] += weight;
+                return;
+            }
+            if (size < itemIds.length) {
+                itemIds[size] = itemId;
+                counts[size] = weight;
+                slots.put(itemId, size++);
+                return;
+            }
+            int min = 0;
+            for (int i = 1; i < size; i++) {
+                if (counts[i] < counts[min]) {
+                    min = i;
+                }
+            }
+            slots.remove(itemIds[min]);
+            itemIds[min] = itemId;
+            counts[min] += weight;
+            slots.put(itemId, min);
+        }
+
+        private synchronized void addTo(Map<Long, Long> totals, long oldestEpoch) {
+            if (epoch < oldestEpoch) {
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                totals.merge(itemIds[i], counts[i], Long::sum);
+            }
+        }
+    }
+
+    public record Trend(long itemId, long score) {
+    }
+}
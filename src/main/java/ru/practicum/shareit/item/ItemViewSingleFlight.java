@@ -0,0 +1,131 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.AfterCommit;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class ItemViewSingleFlight {
+    private final Map<ViewKey, CompletableFuture<ItemDto>> inFlight = new ConcurrentHashMap<>();
+    private final Map<ViewKey, Snapshot> recent = new ConcurrentHashMap<>();
+    private final long stalenessNanos;
+    private final int maxRecent;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter stale;
+
+    public ItemViewSingleFlight(@Value("${shareit.item.view.staleness:0s}") Duration staleness,
+                                @Value("${shareit.item.view.max-recent:10000}") int maxRecent,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.stalenessNanos = staleness.toNanos();
+        this.maxRecent = maxRecent;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executed = Counter.builder("shareit.item.view.loads")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("shareit.item.view.loads")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        this.stale = Counter.builder("shareit.item.view.loads")
+                .tag("result", "stale")
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.view.in.flight", inFlight, Map::size)
+                .register(meterRegistry);
+    }
+
+    public ItemDto load(Long itemId, boolean ownerView, Supplier<ItemDto> loader) {
+        ViewKey key = new ViewKey(itemId, ownerView);
+        if (stalenessNanos > 0) {
+            Snapshot snapshot = recent.get(key);
+            if (snapshot != null && System.nanoTime() - snapshot.completedAt() < stalenessNanos) {
+                stale.increment();
+                return snapshot.value();
+            }
+        }
+
+        CompletableFuture<ItemDto> own = new CompletableFuture<>();
+        CompletableFuture<ItemDto> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            coalesced.increment();
+            log.debug("Запрос вещи ID {} присоединён к выполняющейся загрузке", itemId);
+            return await(existing);
+        }
+
+        executed.increment();
+        try {
+            ItemDto value = readOnlyTransaction.execute(status -> loader.get());
+            if (stalenessNanos > 0 && inFlight.get(key) == own) {
+                remember(key, value);
+            }
+            own.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    public void invalidate(Long itemId) {
+        AfterCommit.run(() -> {
+            for (boolean ownerView : new boolean[]{false, true}) {
+                ViewKey key = new ViewKey(itemId, ownerView);
+                recent.remove(key);
+                inFlight.remove(key);
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        AfterCommit.run(() -> {
+            recent.clear();
+            inFlight.clear();
+        });
+    }
+
+    private void remember(ViewKey key, ItemDto value) {
+        if (recent.size() >= maxRecent) {
+            long now = System.nanoTime();
+            recent.values().removeIf(snapshot -> now - snapshot.completedAt() >= stalenessNanos);
+        }
+        if (recent.size() < maxRecent) {
+            recent.put(key, new Snapshot(value, System.nanoTime()));
+        }
+    }
+
+    private ItemDto await(CompletableFuture<ItemDto> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record ViewKey(Long itemId, boolean ownerView) {
+    }
+
+    private record Snapshot(ItemDto value, long completedAt) {
+    }
+}
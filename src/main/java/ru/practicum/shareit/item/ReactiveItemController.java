@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item;
+
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+@RestController
+@RequestMapping("/reactive/items")
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+@Validated
+@RequiredArgsConstructor
+public class ReactiveItemController {
+    private final ReactiveItemService itemService;
+
+    @GetMapping("/{itemId}")
+    public Mono<ItemDto> getItemById(@PathVariable @Positive Long itemId,
+                                     @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return itemService.getItemById(itemId, userId);
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+
+@Repository
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveItemRepository {
+    private static final String OWNED_BOOKINGS = "SELECT b.id, b.booker_id FROM bookings b " +
+            "JOIN items i ON i.id = b.item_id AND i.deleted = false " +
+            "JOIN users u ON u.id = b.booker_id AND u.deleted = false " +
+            "WHERE b.item_id = :itemId AND i.owner_id = :userId AND b.status = :status ";
+
+    private final DatabaseClient reactiveDatabaseClient;
+
+    public Mono<ItemDto> findById(Long itemId) {
+        return reactiveDatabaseClient.sql("SELECT id, name, description, is_available, owner_id, request_id, " +
+                        "comment_count FROM items WHERE id = :id AND deleted = false")
+                .bind("id", itemId)
+                .map(row -> ItemDto.builder()
+                        .id(row.get("id", Long.class))
+                        .name(row.get("name", String.class))
+                        .description(row.get("description", String.class))
+                        .available(row.get("is_available", Boolean.class))
+                        .ownerId(row.get("owner_id", Long.class))
+                        .requestId(row.get("request_id", Long.class))
+                        .commentCount(row.get("comment_count", Integer.class))
+                        .build())
+                .one();
+    }
+
+    public Flux<CommentDto> findLatestComments(Long itemId, int limit) {
+        return reactiveDatabaseClient.sql("SELECT c.id, c.text, c.created, u.id AS author_id, " +
+                        "u.name AS author_name, u.email AS author_email " +
+                        "FROM comments c JOIN users u ON u.id = c.author_id AND u.deleted = false " +
+                        "WHERE c.item_id = :itemId ORDER BY c.id DESC LIMIT :limit")
+                .bind("itemId", itemId)
+                .bind("limit", limit)
+                .map(ReactiveItemRepository::toCommentDto)
+                .all();
+    }
+
+    public Mono<BookingShortDto> findLastBooking(Long itemId, Long userId, LocalDateTime now) {
+        return findOwnedBooking("AND b.start_date < :now ORDER BY b.start_date DESC LIMIT 1", itemId, userId, now);
+    }
+
+    public Mono<BookingShortDto> findNextBooking(Long itemId, Long userId, LocalDateTime now) {
+        return findOwnedBooking("AND b.start_date > :now ORDER BY b.start_date LIMIT 1", itemId, userId, now);
+    }
+
+    private Mono<BookingShortDto> findOwnedBooking(String condition, Long itemId, Long userId, LocalDateTime now) {
+        return reactiveDatabaseClient.sql(OWNED_BOOKINGS + condition)
+                .bind("itemId", itemId)
+                .bind("userId", userId)
+                .bind("status", BookingStatus.APPROVED.name())
+                .bind("now", now)
+                .map(row -> new BookingShortDto(row.get("id", Long.class), row.get("booker_id", Long.class)))
+                .one();
+    }
+
+    private static CommentDto toCommentDto(Readable row) {
+        UserDto author = new UserDto(row.get("author_id", Long.class), row.get("author_name", String.class),
+                row.get("author_email", String.class));
+        return CommentDto.builder()
+                .id(row.get("id", Long.class))
+                .text(row.get("text", String.class))
+                .author(author)
+                .authorName(author.getName())
+                .created(row.get("created", LocalDateTime.class))
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+@Slf4j
+public class ReactiveItemService {
+    private final ReactiveItemRepository itemRepository;
+    private final int inlineCommentsLimit;
+
+    public ReactiveItemService(ReactiveItemRepository itemRepository,
+                               @Value("${shareit.item.comments.inline-limit:10}") int inlineCommentsLimit) {
+        this.itemRepository = itemRepository;
+        this.inlineCommentsLimit = inlineCommentsLimit;
+    }
+
+    public Mono<ItemDto> getItemById(Long itemId, Long userId) {
+        log.debug("Реактивное получение вещи ID {} пользователем ID {}", itemId, userId);
+        LocalDateTime now = LocalDateTime.now();
+        Mono<ItemDto> item = itemRepository.findById(itemId)
+                .switchIfEmpty(Mono.error(NotFoundException.ITEM_NOT_FOUND));
+        Mono<List<CommentDto>> comments = itemRepository.findLatestComments(itemId, inlineCommentsLimit)
+                .collectList()
+                .map(latest -> {
+                    List<CommentDto> ordered = new ArrayList<>(latest);
+                    Collections.reverse(ordered);
+                    return ordered;
+                });
+        Mono<Optional<BookingShortDto>> last = optional(itemRepository.findLastBooking(itemId, userId, now));
+        Mono<Optional<BookingShortDto>> next = optional(itemRepository.findNextBooking(itemId, userId, now));
+
+        return Mono.zip(item, comments, last, next)
+                .map(parts -> {
+                    ItemDto itemDto = parts.getT1();
+                    itemDto.setComments(parts.getT2());
+                    itemDto.setLastBooking(parts.getT3().orElse(null));
+                    itemDto.setNextBooking(parts.getT4().orElse(null));
+                    return itemDto;
+                });
+    }
+
+    private static Mono<Optional<BookingShortDto>> optional(Mono<BookingShortDto> booking) {
+        return booking.map(Optional::of).defaultIfEmpty(Optional.empty());
+    }
+}
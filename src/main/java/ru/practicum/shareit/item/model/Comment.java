@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
@@ -13,6 +14,8 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@SQLRestriction("NOT EXISTS (SELECT 1 FROM items i WHERE i.id = item_id AND i.deleted = true) " +
+        "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = author_id AND u.deleted = true)")
 @Table(name = "comments")
 public class Comment {
     @Id
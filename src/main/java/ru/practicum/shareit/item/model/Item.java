@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
@@ -13,6 +14,7 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@SQLRestriction("deleted = false")
 @Table(name = "items")
 public class Item {
     @Id
@@ -37,6 +39,18 @@ public class Item {
             foreignKey = @ForeignKey(name = "fk_item_request"))
     private ItemRequest request;
 
+    @Builder.Default
+    @Column(name = "comment_count", nullable = false)
+    private Integer commentCount = 0;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean deleted = false;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+@Aspect
+@Component
+public class JfrProfilingAspect {
+    @Around("execution(* ru.practicum.shareit.item.ItemService.*(..)) " +
+            "|| execution(* ru.practicum.shareit.booking.BookingServiceImpl.*(..)) " +
+            "|| execution(* ru.practicum.shareit.user.UserService.*(..))")
+    public Object serviceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+            event.method = joinPoint.getSignature().getName();
+            event.commit();
+        }
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object repositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        StringBuilder outer = SqlCapture.begin();
+        event.begin();
+        try {
+            Object result = joinPoint.proceed();
+            event.rows = rows(result);
+            return result;
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            event.sql = SqlCapture.end(outer);
+            event.repository = repositoryName(joinPoint);
+            event.method = joinPoint.getSignature().getName();
+            event.commit();
+        }
+    }
+
+    @Around("execution(* ru.practicum.shareit..*Mapper+.*(..))")
+    public Object mapperCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        MapperCallEvent event = new MapperCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            event.end();
+            Object[] args = joinPoint.getArgs();
+            event.elements = args.length > 0 && args[0] instanceof Collection<?> collection ? collection.size() : 1;
+            event.mapper = joinPoint.getSignature().getDeclaringType().getSimpleName();
+            event.method = joinPoint.getSignature().getName();
+            event.commit();
+        }
+    }
+
+    private static String repositoryName(ProceedingJoinPoint joinPoint) {
+        for (Class<?> type : joinPoint.getTarget().getClass().getInterfaces()) {
+            if (type.getName().startsWith("ru.practicum.shareit.")) {
+                return type.getSimpleName();
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        return result == null ? 0 : 1;
+    }
+}
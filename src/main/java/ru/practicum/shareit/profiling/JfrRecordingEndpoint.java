@@ -0,0 +1,107 @@
+package ru.practicum.shareit.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@WebEndpoint(id = "jfr", enableByDefault = false)
+@Slf4j
+public class JfrRecordingEndpoint {
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+    private Recording recording;
+    private Path lastDump;
+
+    public JfrRecordingEndpoint(@Value("${shareit.profiling.jfr.default-duration:60s}") Duration defaultDuration,
+                                @Value("${shareit.profiling.jfr.max-duration:5m}") Duration maxDuration,
+                                @Value("${shareit.profiling.jfr.max-size:100MB}") DataSize maxSize) {
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording == null ? "NONE" : recording.getState().name());
+        if (recording != null) {
+            status.put("started", recording.getStartTime());
+            status.put("duration", recording.getDuration());
+            status.put("size", recording.getSize());
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Duration duration) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        closeRecording();
+        Duration requested = duration == null ? defaultDuration : duration;
+        Duration bounded = requested.compareTo(maxDuration) > 0 ? maxDuration : requested;
+        try {
+            recording = new Recording(Configuration.getConfiguration("profile"));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Не удалось загрузить настройки JFR", e);
+        }
+        recording.setName("shareit-on-demand");
+        recording.enable(ServiceCallEvent.class);
+        recording.enable(RepositoryCallEvent.class);
+        recording.enable(MapperCallEvent.class);
+        recording.setDuration(bounded);
+        recording.setMaxSize(maxSize.toBytes());
+        recording.setToDisk(true);
+        recording.start();
+        log.info("Запущена запись JFR на {}", bounded);
+        return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> stop() throws IOException {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        Path dump = Files.createTempFile("shareit-", ".jfr");
+        recording.dump(dump);
+        closeRecording();
+        if (lastDump != null) {
+            Files.deleteIfExists(lastDump);
+        }
+        lastDump = dump;
+        log.info("Запись JFR остановлена, файл {} ({} байт)", dump, Files.size(dump));
+        return new WebEndpointResponse<>(new FileSystemResource(dump), WebEndpointResponse.STATUS_OK);
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.practicum.shareit.MapperCall")
+@Label("Mapper Call")
+@Category({"ShareIt", "Mapper"})
+@StackTrace(false)
+class MapperCallEvent extends Event {
+    @Label("Mapper")
+    String mapper;
+
+    @Label("Method")
+    String method;
+
+    @Label("Elements")
+    int elements;
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.profiling;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class SqlCapture implements StatementInspector, HibernatePropertiesCustomizer {
+    private static final int MAX_LENGTH = 4000;
+    private static final ThreadLocal<StringBuilder> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        StringBuilder captured = CURRENT.get();
+        if (captured != null && captured.length() < MAX_LENGTH) {
+            if (!captured.isEmpty()) {
+                captured.append(";\n");
+            }
+            captured.append(sql, 0, Math.min(sql.length(), MAX_LENGTH - captured.length()));
+        }
+        return sql;
+    }
+
+    static StringBuilder begin() {
+        StringBuilder outer = CURRENT.get();
+        CURRENT.set(new StringBuilder());
+        return outer;
+    }
+
+    static String end(StringBuilder outer) {
+        String captured = CURRENT.get().toString();
+        if (outer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(outer);
+        }
+        return captured;
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.purge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.shard.ShardContext;
+import ru.practicum.shareit.shard.ShardRouter;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+
+@Component
+@Slf4j
+public class SoftDeletePurger {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int entitiesPerRun;
+
+    public SoftDeletePurger(UserRepository userRepository,
+                            ItemRepository itemRepository,
+                            BookingRepository bookingRepository,
+                            CommentRepository commentRepository,
+                            ShardRouter shardRouter,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${shareit.purge.chunk-size:500}") int chunkSize,
+                            @Value("${shareit.purge.entities-per-run:50}") int entitiesPerRun) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.commentRepository = commentRepository;
+        this.shardRouter = shardRouter;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.entitiesPerRun = entitiesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.purge.interval:PT1M}")
+    public void purge() {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (ShardContext.Scope ignored = ShardContext.open(shard)) {
+                List<Long> itemIds = itemRepository.findDeletedIds(entitiesPerRun);
+                itemIds.forEach(this::purgeItem);
+            } catch (DataAccessException e) {
+                log.warn("Очистка вещей на шарде {} прервана: {}", shard, e.getMessage());
+            }
+        }
+        List<Long> userIds = userRepository.findDeletedIds(entitiesPerRun);
+        for (Long userId : userIds) {
+            try {
+                purgeUser(userId);
+            } catch (DataAccessException e) {
+                log.warn("Удаление пользователя ID {} прервано, повтор при следующем запуске: {}",
+                        userId, e.getMessage());
+            }
+        }
+    }
+
+    private void purgeItem(Long itemId) {
+        int comments = deleteInChunks(() -> commentRepository.purgeChunkByItemId(itemId, chunkSize));
+        int bookings = deleteInChunks(() -> bookingRepository.purgeChunkByItemId(itemId, chunkSize));
+        if (inTransaction(() -> itemRepository.purgeDeleted(itemId)) > 0) {
+            log.info("Вещь ID {} удалена окончательно: комментариев {}, бронирований {}", itemId, comments, bookings);
+        }
+    }
+
+    private void purgeUser(Long userId) {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (ShardContext.Scope ignored = ShardContext.open(shard)) {
+                if (itemRepository.existsAnyByOwnerId(userId)) {
+                    log.debug("Удаление пользователя ID {} отложено до удаления его вещей на шарде {}",
+                            userId, shard);
+                    return;
+                }
+            }
+        }
+        int bookings = 0;
+        int comments = 0;
+        int deleted = 0;
+        for (int shard = shardRouter.shardCount() - 1; shard >= 0; shard--) {
+            try (ShardContext.Scope ignored = ShardContext.open(shard)) {
+                bookings += deleteInChunks(() -> bookingRepository.purgeChunkByBookerId(userId, chunkSize));
+                comments += deleteInChunks(() -> purgeCommentChunkByAuthor(userId));
+                deleted = inTransaction(() -> {
+                    itemRepository.detachRequestsOf(userId);
+                    return userRepository.purgeDeleted(userId);
+                });
+            }
+        }
+        if (deleted > 0) {
+            log.info("Пользователь ID {} удалён окончательно: комментариев {}, бронирований {}",
+                    userId, comments, bookings);
+        }
+    }
+
+    private int purgeCommentChunkByAuthor(Long authorId) {
+        List<Long> ids = commentRepository.findIdsByAuthorId(authorId, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> itemIds = commentRepository.findItemIdsByIdIn(ids);
+        int deleted = commentRepository.purgeByIdIn(ids);
+        itemRepository.recountComments(itemIds);
+        return deleted;
+    }
+
+    private int deleteInChunks(IntSupplier chunk) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = inTransaction(chunk);
+            total += deleted;
+        } while (deleted >= chunkSize);
+        return total;
+    }
+
+    private int inTransaction(IntSupplier action) {
+        Integer result = chunkTransaction.execute(status -> action.getAsInt());
+        return result == null ? 0 : result;
+    }
+}
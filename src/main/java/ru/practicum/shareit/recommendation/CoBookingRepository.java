@@ -0,0 +1,80 @@
+package ru.practicum.shareit.recommendation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CoBookingRepository {
+    private static final String APPROVED_PAIRS = "SELECT DISTINCT b.booker_id, b.item_id FROM bookings b " +
+            "JOIN items i ON i.id = b.item_id AND i.deleted = false " +
+            "JOIN users u ON u.id = b.booker_id AND u.deleted = false " +
+            "WHERE b.status = 'APPROVED' ";
+    private static final String NEW_BOOKERS = "SELECT nb.booker_id FROM bookings nb " +
+            "WHERE nb.id >= ? AND nb.status = 'APPROVED'";
+    private static final String AFFECTED_ITEMS = "SELECT DISTINCT ab.item_id FROM bookings ab " +
+            "WHERE ab.status = 'APPROVED' AND ab.booker_id IN (" + NEW_BOOKERS + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Long findNextBookingId() {
+        List<Long> state = jdbcTemplate.queryForList(
+                "SELECT next_booking_id FROM item_recommendation_state WHERE id = 1", Long.class);
+        return state.isEmpty() ? null : state.get(0);
+    }
+
+    public long findWatermark() {
+        Long watermark = jdbcTemplate.queryForObject("SELECT COALESCE(MIN(id), " +
+                "(SELECT COALESCE(MAX(id), 0) + 1 FROM bookings)) FROM bookings WHERE status = 'WAITING'", Long.class);
+        return watermark == null ? 1 : watermark;
+    }
+
+    public void streamAllPairs(RowCallbackHandler handler) {
+        jdbcTemplate.query(APPROVED_PAIRS + "ORDER BY b.booker_id, b.item_id", handler);
+    }
+
+    public void streamPairsAffectedSince(long nextBookingId, RowCallbackHandler handler) {
+        jdbcTemplate.query(APPROVED_PAIRS + "AND b.booker_id IN (SELECT tb.booker_id FROM bookings tb " +
+                        "WHERE tb.status = 'APPROVED' AND tb.item_id IN (" + AFFECTED_ITEMS + ")) " +
+                        "ORDER BY b.booker_id, b.item_id",
+                handler, nextBookingId);
+    }
+
+    public List<Long> findItemIdsAffectedSince(long nextBookingId) {
+        return jdbcTemplate.queryForList(AFFECTED_ITEMS, Long.class, nextBookingId);
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM item_recommendations");
+    }
+
+    public void deleteByItemIds(List<Long> itemIds) {
+        jdbcTemplate.batchUpdate("DELETE FROM item_recommendations WHERE item_id = ?", itemIds, itemIds.size(),
+                (statement, itemId) -> statement.setLong(1, itemId));
+    }
+
+    public void insertAll(List<long[]> rows, int batchSize) {
+        jdbcTemplate.batchUpdate("INSERT INTO item_recommendations (item_id, related_item_id, score) " +
+                        "VALUES (?, ?, ?)", rows, batchSize,
+                (statement, row) -> {
+                    statement.setLong(1, row[0]);
+                    statement.setLong(2, row[1]);
+                    statement.setInt(3, (int) row[2]);
+                });
+    }
+
+    public void saveNextBookingId(long nextBookingId, LocalDateTime refreshed) {
+        int updated = jdbcTemplate.update("UPDATE item_recommendation_state SET next_booking_id = ?, refreshed = ? " +
+                "WHERE id = 1", nextBookingId, Timestamp.valueOf(refreshed));
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO item_recommendation_state (id, next_booking_id, refreshed) " +
+                    "VALUES (1, ?, ?)", nextBookingId, Timestamp.valueOf(refreshed));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.recommendation;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+class CoBookingTask extends RecursiveTask<LongIntHashMap> {
+    private final List<int[]> baskets;
+    private final int from;
+    private final int to;
+    private final int threshold;
+
+    CoBookingTask(List<int[]> baskets, int from, int to, int threshold) {
+        this.baskets = baskets;
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+    }
+
+    static long pair(int first, int second) {
+        return (long) first << 32 | second;
+    }
+
+    @Override
+    protected LongIntHashMap compute() {
+        if (to - from <= threshold) {
+            return countPairs();
+        }
+        int middle = (from + to) >>> 1;
+        CoBookingTask left = new CoBookingTask(baskets, from, middle, threshold);
+        left.fork();
+        LongIntHashMap right = new CoBookingTask(baskets, middle, to, threshold).compute();
+        LongIntHashMap joined = left.join();
+        if (joined.size() < right.size()) {
+            right.addAll(joined);
+            return right;
+        }
+        joined.addAll(right);
+        return joined;
+    }
+
+    private LongIntHashMap countPairs() {
+        LongIntHashMap counts = new LongIntHashMap(1024);
+        for (int i = from; i < to; i++) {
+            int[] items = baskets.get(i);
+            for (int a = 0; a < items.length; a++) {
+                for (int b = a + 1; b < items.length; b++) {
+                    counts.addTo(pair(items[a], items[b]), 1);
+                }
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,216 @@
+package ru.practicum.shareit.recommendation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+@Component
+@Slf4j
+public class ItemRecommendationJob {
+    private final CoBookingRepository coBookingRepository;
+    private final TransactionTemplate writeTransaction;
+    private final ForkJoinPool pool;
+    private final int topK;
+    private final int maxItemsPerBooker;
+    private final int bookersPerTask;
+    private final int batchSize;
+    private final Counter fullRuns;
+    private final Counter incrementalRuns;
+
+    public ItemRecommendationJob(CoBookingRepository coBookingRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${shareit.recommendations.parallelism:0}") int parallelism,
+                                 @Value("${shareit.recommendations.top-k:10}") int topK,
+                                 @Value("${shareit.recommendations.max-items-per-booker:200}") int maxItemsPerBooker,
+                                 @Value("${shareit.recommendations.bookers-per-task:256}") int bookersPerTask,
+                                 @Value("${shareit.recommendations.batch-size:500}") int batchSize,
+                                 MeterRegistry meterRegistry) {
+        this.coBookingRepository = coBookingRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.topK = topK;
+        this.maxItemsPerBooker = maxItemsPerBooker;
+        this.bookersPerTask = bookersPerTask;
+        this.batchSize = batchSize;
+        this.fullRuns = Counter.builder("shareit.recommendations.refreshes")
+                .tag("mode", "full")
+                .register(meterRegistry);
+        this.incrementalRuns = Counter.builder("shareit.recommendations.refreshes")
+                .tag("mode", "incremental")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.recommendations.interval:PT15M}",
+            initialDelayString = "${shareit.recommendations.initial-delay:PT30S}")
+    public void refresh() {
+        run(false);
+    }
+
+    @Scheduled(cron = "${shareit.recommendations.full-rebuild-cron:0 0 3 * * *}")
+    public void rebuild() {
+        run(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private synchronized void run(boolean forceFull) {
+        long started = System.nanoTime();
+        long watermark = coBookingRepository.findWatermark();
+        Long since = forceFull ? null : coBookingRepository.findNextBookingId();
+        List<Long> targets = since == null ? null : coBookingRepository.findItemIdsAffectedSince(since);
+        if (targets != null && targets.isEmpty()) {
+            coBookingRepository.saveNextBookingId(watermark, LocalDateTime.now());
+            return;
+        }
+
+        BasketCollector collector = new BasketCollector();
+        if (since == null) {
+            coBookingRepository.streamAllPairs(collector);
+        } else {
+            coBookingRepository.streamPairsAffectedSince(since, collector);
+        }
+        collector.finish();
+
+        LongIntHashMap pairs = pool.invoke(new CoBookingTask(collector.baskets, 0, collector.baskets.size(),
+                bookersPerTask));
+        List<long[]> rows = topNeighbours(collector, pairs, targets);
+
+        writeTransaction.executeWithoutResult(status -> {
+            if (targets == null) {
+                coBookingRepository.deleteAll();
+            } else {
+                coBookingRepository.deleteByItemIds(targets);
+            }
+            coBookingRepository.insertAll(rows, batchSize);
+            coBookingRepository.saveNextBookingId(watermark, LocalDateTime.now());
+        });
+
+        (targets == null ? fullRuns : incrementalRuns).increment();
+        log.info("Рекомендации пересчитаны ({}): арендаторов {}, вещей {}, пар {}, строк {}, {} мс",
+                targets == null ? "полностью" : "для " + targets.size() + " вещей",
+                collector.baskets.size(), collector.itemCount, pairs.size(), rows.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private List<long[]> topNeighbours(BasketCollector collector, LongIntHashMap pairs, List<Long> targets) {
+        int items = collector.itemCount;
+        boolean[] target = new boolean[items];
+        if (targets == null) {
+            Arrays.fill(target, true);
+        } else {
+            for (Long itemId : targets) {
+                int index = collector.index.get(itemId, -1);
+                if (index >= 0) {
+                    target[index] = true;
+                }
+            }
+        }
+
+        int[] neighbours = new int[items * topK];
+        int[] scores = new int[items * topK];
+        int[] sizes = new int[items];
+        long[] itemIds = collector.itemIds;
+        pairs.forEach((key, score) -> {
+            int first = (int) (key >>> 32);
+            int second = (int) key;
+            if (target[first]) {
+                offer(first, second, score, neighbours, scores, sizes, itemIds);
+            }
+            if (target[second]) {
+                offer(second, first, score, neighbours, scores, sizes, itemIds);
+            }
+        });
+
+        List<long[]> rows = new ArrayList<>();
+        for (int item = 0; item < items; item++) {
+            for (int rank = 0; rank < sizes[item]; rank++) {
+                int slot = item * topK + rank;
+                rows.add(new long[]{itemIds[item], itemIds[neighbours[slot]], scores[slot]});
+            }
+        }
+        return rows;
+    }
+
+    private void offer(int item, int neighbour, int score, int[] neighbours, int[] scores, int[] sizes,
+                       long[] itemIds) {
+        int base = item * topK;
+        int size = sizes[item];
+        int position = size;
+        while (position > 0 && ranksAbove(score, itemIds[neighbour],
+                scores[base + position - 1], itemIds[neighbours[base + position - 1]])) {
+            position--;
+        }
+        if (position >= topK) {
+            return;
+        }
+        int last = Math.min(size, topK - 1);
+        for (int i = last; i > position; i--) {
+            neighbours[base + i] = neighbours[base + i - 1];
+            scores[base + i] = scores[base + i - 1];
+        }
+        neighbours[base + position] = neighbour;
+        scores[base + position] = score;
+        sizes[item] = Math.min(size + 1, topK);
+    }
+
+    private static boolean ranksAbove(int score, long itemId, int otherScore, long otherItemId) {
+        return score > otherScore || score == otherScore && itemId < otherItemId;
+    }
+
+    private class BasketCollector implements RowCallbackHandler {
+        private final LongIntHashMap index = new LongIntHashMap(1024);
+        private final List<int[]> baskets = new ArrayList<>();
+        private final int[] buffer = new int[maxItemsPerBooker];
+        private long[] itemIds = new long[1024];
+        private int itemCount;
+        private long currentBooker = -1;
+        private int bufferSize;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long bookerId = rs.getLong(1);
+            long itemId = rs.getLong(2);
+            if (bookerId != currentBooker) {
+                finish();
+                currentBooker = bookerId;
+            }
+            int item = index.putIfAbsent(itemId, itemCount);
+            if (item == itemCount) {
+                if (itemCount == itemIds.length) {
+                    itemIds = Arrays.copyOf(itemIds, itemCount * 2);
+                }
+                itemIds[itemCount++] = itemId;
+            }
+            if (bufferSize < buffer.length) {
+                buffer[bufferSize++] = item;
+            }
+        }
+
+        void finish() {
+            if (bufferSize > 1) {
+                int[] basket = Arrays.copyOf(buffer, bufferSize);
+                Arrays.sort(basket);
+                baskets.add(basket);
+            }
+            bufferSize = 0;
+        }
+    }
+}
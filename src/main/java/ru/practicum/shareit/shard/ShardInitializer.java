@@ -0,0 +1,132 @@
+package ru.practicum.shareit.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class ShardInitializer implements ApplicationRunner {
+    private static final List<String> SHARDED_TABLES = List.of("items", "bookings", "comments");
+    private static final long LAYOUT_LOCK = 0x5348415244L;
+
+    private final HikariDataSource writeDataSource;
+    private final ShardPools shardPools;
+    private final UserReplicator userReplicator;
+    private final ObjectProvider<Flyway> flyway;
+    private final String sqlInitMode;
+
+    public ShardInitializer(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                            ShardPools shardPools,
+                            UserReplicator userReplicator,
+                            ObjectProvider<Flyway> flyway,
+                            @Value("${spring.sql.init.mode:embedded}") String sqlInitMode) {
+        this.writeDataSource = writeDataSource;
+        this.shardPools = shardPools;
+        this.userReplicator = userReplicator;
+        this.flyway = flyway;
+        this.sqlInitMode = sqlInitMode;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<DataSource> shards = new ArrayList<>(List.of(writeDataSource));
+        shards.addAll(shardPools.extraShards());
+        if ("always".equalsIgnoreCase(sqlInitMode)) {
+            ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+            shardPools.extraShards().forEach(populator::execute);
+        }
+        flyway.ifAvailable(primary -> shardPools.extraShards().forEach(shard -> Flyway.configure()
+                .configuration(primary.getConfiguration())
+                .dataSource(shard)
+                .load()
+                .migrate()));
+        for (int shard = 0; shard < shards.size(); shard++) {
+            checkPlacement(new JdbcTemplate(shards.get(shard)), shard, shards.size());
+        }
+        for (int shard = 0; shard < shards.size(); shard++) {
+            applyLayout(shards.get(shard), shard, shards.size());
+        }
+        if (shards.size() > 1) {
+            userReplicator.reconcile();
+            log.info("Шарды инициализированы: {}", shards.size());
+        }
+    }
+
+    private void checkPlacement(JdbcTemplate shard, int index, int shardCount) {
+        List<int[]> stored = readLayout(shard, "");
+        if (matches(stored, index, shardCount)) {
+            return;
+        }
+        for (String table : SHARDED_TABLES) {
+            Long misplaced = shard.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE MOD(id, ?) <> ?",
+                    Long.class, shardCount, index);
+            if (misplaced != null && misplaced > 0) {
+                throw new IllegalStateException(String.format(
+                        "Раскладка шарда %d изменена на %d шардов, но в таблице %s %d строк принадлежат другим "
+                                + "шардам; перенесите строки перед запуском", index, shardCount, table, misplaced));
+            }
+        }
+    }
+
+    private void applyLayout(DataSource dataSource, int index, int shardCount) {
+        JdbcTemplate shard = new JdbcTemplate(dataSource);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            String product = shard.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if ("PostgreSQL".equals(product)) {
+                shard.query("SELECT pg_advisory_xact_lock(?)", rows -> null, LAYOUT_LOCK);
+            }
+            List<int[]> stored = readLayout(shard, " FOR UPDATE");
+            if (matches(stored, index, shardCount)) {
+                return;
+            }
+            alignIdentities(shard, index, shardCount);
+            if (stored.isEmpty()) {
+                shard.update("INSERT INTO shard_layout (id, shard_count, shard_index) VALUES (1, ?, ?)",
+                        shardCount, index);
+            } else {
+                shard.update("UPDATE shard_layout SET shard_count = ?, shard_index = ? WHERE id = 1",
+                        shardCount, index);
+            }
+            log.info("Раскладка шарда {} изменена: {} шардов, идентификаторы выровнены", index, shardCount);
+        });
+    }
+
+    private List<int[]> readLayout(JdbcTemplate shard, String lock) {
+        return shard.query("SELECT shard_count, shard_index FROM shard_layout WHERE id = 1" + lock,
+                (row, rowNum) -> new int[]{row.getInt("shard_count"), row.getInt("shard_index")});
+    }
+
+    private boolean matches(List<int[]> stored, int index, int shardCount) {
+        return !stored.isEmpty() && stored.get(0)[0] == shardCount && stored.get(0)[1] == index;
+    }
+
+    private void alignIdentities(JdbcTemplate shard, int index, int shardCount) {
+        for (String table : SHARDED_TABLES) {
+            Long max = shard.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long next = max + 1 + Math.floorMod(index - (max + 1), (long) shardCount);
+            shard.execute("ALTER TABLE " + table + " ALTER COLUMN id SET INCREMENT BY " + shardCount
+                    + " RESTART WITH " + next);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.List;
+
+public class ShardPools implements AutoCloseable {
+    private final List<HikariDataSource> extraShards;
+
+    public ShardPools(List<HikariDataSource> extraShards) {
+        this.extraShards = List.copyOf(extraShards);
+    }
+
+    public int shardCount() {
+        return extraShards.size() + 1;
+    }
+
+    public List<HikariDataSource> extraShards() {
+        return extraShards;
+    }
+
+    @Override
+    public void close() {
+        extraShards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.shard;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class ShardRouter {
+    private final int shardCount;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService scatterExecutor;
+
+    public ShardRouter(ShardPools shardPools,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${shareit.sharding.scatter-threads:8}") int scatterThreads) {
+        this.shardCount = shardPools.shardCount();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        if (shardCount > 1) {
+            AtomicInteger threads = new AtomicInteger();
+            this.scatterExecutor = Executors.newFixedThreadPool(scatterThreads, runnable -> {
+                Thread thread = new Thread(runnable, "shard-scatter-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            log.info("Шардирование включено: {} шардов", shardCount);
+        } else {
+            this.scatterExecutor = null;
+        }
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardForOwner(Long ownerId) {
+        return Math.floorMod(Long.hashCode(ownerId * 0x9E3779B97F4A7C15L), shardCount);
+    }
+
+    public int shardForId(Long id) {
+        return (int) Math.floorMod(id, (long) shardCount);
+    }
+
+    public ShardContext.Scope forOwner(Long ownerId) {
+        return ShardContext.open(shardForOwner(ownerId));
+    }
+
+    public ShardContext.Scope forId(Long id) {
+        return ShardContext.open(shardForId(id));
+    }
+
+    public <T> List<T> scatter(IntFunction<List<T>> query) {
+        if (shardCount == 1) {
+            return query.apply(0);
+        }
+        List<T> result = new ArrayList<>();
+        gather(query).forEach(result::addAll);
+        return result;
+    }
+
+    public <T> List<T> scatterByIds(Collection<Long> ids, Function<List<Long>, List<T>> query) {
+        if (shardCount == 1) {
+            return query.apply(List.copyOf(ids));
+        }
+        Map<Integer, List<Long>> idsByShard = ids.stream()
+                .collect(Collectors.groupingBy(this::shardForId));
+        return scatter(shard -> idsByShard.containsKey(shard)
+                ? query.apply(idsByShard.get(shard))
+                : List.of());
+    }
+
+    public <T> List<T> scatterMerge(Pageable page, Function<Pageable, List<T>> query, Comparator<? super T> order) {
+        if (shardCount == 1) {
+            return query.apply(page);
+        }
+        int offset = (int) page.getOffset();
+        Pageable head = PageRequest.of(0, offset + page.getPageSize());
+        return merge(gather(shard -> query.apply(head)), order, offset, page.getPageSize());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+
+    private <T> List<List<T>> gather(IntFunction<List<T>> query) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(target, query), scatterExecutor));
+        }
+        List<List<T>> parts = new ArrayList<>(shardCount);
+        for (CompletableFuture<List<T>> future : futures) {
+            parts.add(await(future));
+        }
+        return parts;
+    }
+
+    private <T> List<T> onShard(int shard, IntFunction<List<T>> query) {
+        try (ShardContext.Scope ignored = ShardContext.open(shard)) {
+            return readOnlyTransaction.execute(status -> query.apply(shard));
+        }
+    }
+
+    private static <T> List<T> merge(List<List<T>> parts, Comparator<? super T> order, int offset, int limit) {
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>((left, right) -> order.compare(left.head(), right.head()));
+        for (List<T> part : parts) {
+            if (!part.isEmpty()) {
+                heads.add(new Cursor<>(part, 0));
+            }
+        }
+        List<T> result = new ArrayList<>(limit);
+        int skipped = 0;
+        while (!heads.isEmpty() && result.size() < limit) {
+            Cursor<T> cursor = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(cursor.head());
+            }
+            if (cursor.position() + 1 < cursor.part().size()) {
+                heads.add(new Cursor<>(cursor.part(), cursor.position() + 1));
+            }
+        }
+        return result;
+    }
+
+    private static <T> List<T> await(CompletableFuture<List<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Cursor<T>(List<T> part, int position) {
+        private T head() {
+            return part.get(position);
+        }
+    }
+}
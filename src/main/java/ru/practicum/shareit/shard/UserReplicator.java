@@ -0,0 +1,187 @@
+package ru.practicum.shareit.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.AfterCommit;
+import ru.practicum.shareit.user.User;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Component
+@Slf4j
+public class UserReplicator {
+    private static final String SELECT_USERS = "SELECT id, name, email, deleted FROM users";
+    private static final RowMapper<UserRow> USER_ROW = (row, rowNum) -> new UserRow(row.getLong("id"),
+            row.getString("name"), row.getString("email"), row.getBoolean("deleted"));
+
+    private final JdbcTemplate primary;
+    private final List<JdbcTemplate> extraShards;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reconcilePending = new AtomicBoolean();
+    private final Counter failures;
+
+    public UserReplicator(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                          ShardPools shardPools,
+                          MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(writeDataSource);
+        this.extraShards = shardPools.extraShards().stream()
+                .map(JdbcTemplate::new)
+                .toList();
+        this.failures = Counter.builder("shareit.sharding.replication.failures")
+                .register(meterRegistry);
+        Gauge.builder("shareit.sharding.replication.pending", pending, Set::size)
+                .register(meterRegistry);
+    }
+
+    public void replicate(User user) {
+        if (extraShards.isEmpty()) {
+            return;
+        }
+        UserRow row = new UserRow(user.getId(), user.getName(), user.getEmail(),
+                Boolean.TRUE.equals(user.getDeleted()));
+        AfterCommit.run(() -> forEachShard(row.id(), shard -> apply(shard, row)));
+    }
+
+    public void replicateDeleted(Long userId) {
+        if (extraShards.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> forEachShard(userId, shard -> markDeleted(shard, userId)));
+    }
+
+    void reconcile() {
+        reconcilePending.set(false);
+        for (int i = 0; i < extraShards.size(); i++) {
+            try {
+                reconcile(extraShards.get(i), i + 1);
+            } catch (DataAccessException e) {
+                reconcilePending.set(true);
+                failures.increment();
+                log.warn("Не удалось сверить пользователей на шарде {}: {}", i + 1, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.sharding.replication-retry-interval:PT30S}",
+            initialDelayString = "${shareit.sharding.replication-retry-interval:PT30S}")
+    public void retryPending() {
+        if (reconcilePending.get()) {
+            reconcile();
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> userIds = List.copyOf(pending);
+        pending.removeAll(userIds);
+        for (Long userId : userIds) {
+            List<UserRow> rows;
+            try {
+                rows = primary.query(SELECT_USERS + " WHERE id = ?", USER_ROW, userId);
+            } catch (DataAccessException e) {
+                pending.add(userId);
+                log.warn("Не удалось прочитать пользователя ID {} для повторной репликации: {}", userId,
+                        e.getMessage());
+                continue;
+            }
+            forEachShard(userId, shard -> {
+                if (rows.isEmpty()) {
+                    shard.update("DELETE FROM users WHERE id = ?", userId);
+                } else {
+                    apply(shard, rows.get(0));
+                }
+            });
+        }
+        log.info("Повторная репликация пользователей: {}, осталось {}", userIds.size(), pending.size());
+    }
+
+    private void reconcile(JdbcTemplate shard, int index) {
+        List<UserRow> changed = new ArrayList<>();
+        List<Long> purged = new ArrayList<>();
+        try (Stream<UserRow> source = primary.queryForStream(SELECT_USERS + " ORDER BY id", USER_ROW);
+             Stream<UserRow> target = shard.queryForStream(SELECT_USERS + " ORDER BY id", USER_ROW)) {
+            Iterator<UserRow> sourceRows = source.iterator();
+            Iterator<UserRow> targetRows = target.iterator();
+            UserRow expected = sourceRows.hasNext() ? sourceRows.next() : null;
+            UserRow actual = targetRows.hasNext() ? targetRows.next() : null;
+            while (expected != null || actual != null) {
+                int order = expected == null ? 1 : actual == null ? -1 : expected.id().compareTo(actual.id());
+                if (order < 0) {
+                    changed.add(expected);
+                } else if (order > 0) {
+                    purged.add(actual.id());
+                } else if (!expected.equals(actual)) {
+                    changed.add(expected);
+                }
+                if (order <= 0) {
+                    expected = sourceRows.hasNext() ? sourceRows.next() : null;
+                }
+                if (order >= 0) {
+                    actual = targetRows.hasNext() ? targetRows.next() : null;
+                }
+            }
+        }
+        for (Long userId : purged) {
+            onShard(index, userId, () -> shard.update("DELETE FROM users WHERE id = ?", userId));
+        }
+        for (UserRow row : changed) {
+            onShard(index, row.id(), () -> apply(shard, row));
+        }
+        if (!changed.isEmpty() || !purged.isEmpty()) {
+            log.info("Шард {} сверен: обновлено {} пользователей, удалено {}", index, changed.size(), purged.size());
+        }
+    }
+
+    private void apply(JdbcTemplate shard, UserRow row) {
+        int updated = shard.update("UPDATE users SET name = ?, email = ?, deleted = ? WHERE id = ?",
+                row.name(), row.email(), row.deleted(), row.id());
+        if (updated == 0) {
+            shard.update("INSERT INTO users (id, name, email, deleted) VALUES (?, ?, ?, ?)",
+                    row.id(), row.name(), row.email(), row.deleted());
+        }
+        if (row.deleted()) {
+            markDeleted(shard, row.id());
+        }
+    }
+
+    private void markDeleted(JdbcTemplate shard, Long userId) {
+        shard.update("UPDATE users SET deleted = true WHERE id = ?", userId);
+        shard.update("UPDATE items SET deleted = true WHERE owner_id = ? AND deleted = false", userId);
+    }
+
+    private void forEachShard(Long userId, Consumer<JdbcTemplate> action) {
+        for (int i = 0; i < extraShards.size(); i++) {
+            JdbcTemplate shard = extraShards.get(i);
+            onShard(i + 1, userId, () -> action.accept(shard));
+        }
+    }
+
+    private void onShard(int index, Long userId, Runnable action) {
+        try {
+            action.run();
+        } catch (DataAccessException e) {
+            pending.add(userId);
+            failures.increment();
+            log.warn("Не удалось реплицировать пользователя ID {} на шард {}, повтор запланирован: {}", userId,
+                    index, e.getMessage());
+        }
+    }
+
+    private record UserRow(Long id, String name, String email, boolean deleted) {
+    }
+}
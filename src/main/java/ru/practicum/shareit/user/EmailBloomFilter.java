@@ -0,0 +1,93 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+@Component
+@Slf4j
+public class EmailBloomFilter implements ApplicationRunner {
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int initialCapacity;
+    private final double falsePositiveRate;
+    private final Counter skipped;
+    private final Counter queried;
+    private volatile ScalableBloomFilter current;
+    private volatile ScalableBloomFilter pending;
+
+    public EmailBloomFilter(UserRepository userRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${shareit.user.email-filter.initial-capacity:100000}") int initialCapacity,
+                            @Value("${shareit.user.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.initialCapacity = initialCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.skipped = Counter.builder("shareit.user.email.checks")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+        this.queried = Counter.builder("shareit.user.email.checks")
+                .tag("result", "queried")
+                .register(meterRegistry);
+        Gauge.builder("shareit.user.email.filter.size", this,
+                        filter -> filter.current == null ? 0 : filter.current.size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.email-filter.rebuild-interval:PT1H}",
+            initialDelayString = "${shareit.user.email-filter.rebuild-interval:PT1H}")
+    public synchronized void rebuild() {
+        ScalableBloomFilter fresh = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+        pending = fresh;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(fresh::add);
+                }
+            });
+            current = fresh;
+            log.info("Фильтр email перестроен: {} адресов", fresh.size());
+        } finally {
+            pending = null;
+        }
+    }
+
+    public boolean isTaken(String email) {
+        ScalableBloomFilter filter = current;
+        if (filter != null && !filter.mightContain(email)) {
+            skipped.increment();
+            return false;
+        }
+        queried.increment();
+        return userRepository.existsByEmail(email);
+    }
+
+    public void add(String email) {
+        ScalableBloomFilter filter = current;
+        if (filter != null) {
+            filter.add(email);
+        }
+        ScalableBloomFilter rebuilding = pending;
+        if (rebuilding != null) {
+            rebuilding.add(email);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+    private final DatabaseClient reactiveDatabaseClient;
+
+    public Mono<Boolean> existsById(Long userId) {
+        return reactiveDatabaseClient.sql("SELECT COUNT(*) AS cnt FROM users WHERE id = :id AND deleted = false")
+                .bind("id", userId)
+                .map(row -> row.get("cnt", Long.class) > 0)
+                .one();
+    }
+}
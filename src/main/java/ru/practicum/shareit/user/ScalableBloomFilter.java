@@ -0,0 +1,97 @@
+package ru.practicum.shareit.user;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+class ScalableBloomFilter {
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final List<Layer> layers = new ArrayList<>();
+    private long size;
+
+    ScalableBloomFilter(int initialCapacity, double falsePositiveRate) {
+        layers.add(new Layer(Math.max(64, initialCapacity), falsePositiveRate * (1 - TIGHTENING)));
+    }
+
+    synchronized void add(String value) {
+        long[] hashes = hashes(value);
+        Layer last = layers.get(layers.size() - 1);
+        if (last.count >= last.capacity) {
+            last = new Layer(last.capacity * GROWTH, last.falsePositiveRate * TIGHTENING);
+            layers.add(last);
+        }
+        last.add(hashes[0], hashes[1]);
+        size++;
+    }
+
+    synchronized boolean mightContain(String value) {
+        long[] hashes = hashes(value);
+        for (Layer layer : layers) {
+            if (layer.mightContain(hashes[0], hashes[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    private static long[] hashes(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long first = 0xcbf29ce484222325L;
+        long second = 0x84222325cbf29ce4L;
+        for (byte b : bytes) {
+            first = (first ^ (b & 0xff)) * 0x100000001b3L;
+            second = (second + (b & 0xff)) * 0x9E3779B97F4A7C15L;
+        }
+        return new long[]{mix(first), mix(second) | 1};
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static final class Layer {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashCount;
+        private long count;
+
+        private Layer(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new long[(int) ((optimalBits + 63) / 64)];
+            this.bitCount = bits.length * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        private void add(long first, long second) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(first + i * second, bitCount);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+            count++;
+        }
+
+        private boolean mightContain(long first, long second) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(first + i * second, bitCount);
+                if ((bits[(int) (bit >>> 6)] & 1L << bit) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
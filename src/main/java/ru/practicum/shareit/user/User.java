@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.util.Objects;
 
@@ -13,6 +14,7 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@SQLRestriction("deleted = false")
 @Table(name = "users",
         uniqueConstraints = @UniqueConstraint(name = "uq_user_email", columnNames = "email"))
 public class User {
@@ -28,6 +30,10 @@ public class User {
     @Column(nullable = false, length = 255)
     private String name;
 
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean deleted = false;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
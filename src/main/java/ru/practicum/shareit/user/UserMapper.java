@@ -1,11 +1,13 @@
 package ru.practicum.shareit.user;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
     UserDto toDto(User user);
 
+    @Mapping(target = "deleted", ignore = true)
     User toEntity(UserDto userDto);
 }
\ No newline at end of file
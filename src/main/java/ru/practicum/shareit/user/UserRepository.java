@@ -1,7 +1,24 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    boolean existsByEmail(String email);
+    @Query(value = "SELECT COUNT(*) > 0 FROM users WHERE email = :email", nativeQuery = true)
+    boolean existsByEmail(@Param("email") String email);
+
+    @Query(value = "SELECT email FROM users", nativeQuery = true)
+    Stream<String> streamAllEmails();
+
+    @Query(value = "SELECT id FROM users WHERE deleted = true ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findDeletedIds(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE id = :userId AND deleted = true", nativeQuery = true)
+    int purgeDeleted(@Param("userId") Long userId);
 }
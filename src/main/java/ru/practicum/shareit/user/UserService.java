@@ -2,10 +2,21 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.BatchIds;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.invalidation.InvalidationBus;
+import ru.practicum.shareit.invalidation.InvalidationEvent;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchCache;
+import ru.practicum.shareit.item.ItemGeoIndex;
+import ru.practicum.shareit.item.ItemSuggestIndex;
+import ru.practicum.shareit.item.ItemViewSingleFlight;
+import ru.practicum.shareit.shard.UserReplicator;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
@@ -18,16 +29,28 @@ import java.util.stream.Collectors;
 public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final ItemRepository itemRepository;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemViewSingleFlight itemViewSingleFlight;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemGeoIndex itemGeoIndex;
+    private final InvalidationBus invalidationBus;
+    private final EmailBloomFilter emailBloomFilter;
+    private final UserReplicator userReplicator;
+
+    @Value("${shareit.batch.max-ids:100}")
+    private int maxBatchIds;
 
     @Transactional
     public UserDto createUser(UserDto userDto) {
         log.info("Создание пользователя: {}", userDto.getEmail());
-        if (userRepository.existsByEmail(userDto.getEmail())) {
-            log.warn("Попытка создания пользователя с занятым email: {}", userDto.getEmail());
+        if (emailBloomFilter.isTaken(userDto.getEmail())) {
             throw new ConflictException("Email уже занят");
         }
         User user = userMapper.toEntity(userDto);
-        User savedUser = userRepository.save(user);
+        User savedUser = saveAndCheckEmail(user, "Email уже занят");
+        emailBloomFilter.add(savedUser.getEmail());
+        userReplicator.replicate(savedUser);
         return userMapper.toDto(savedUser);
     }
 
@@ -35,31 +58,40 @@ public class UserService {
     public UserDto updateUser(Long userId, UserDto userDto) {
         log.info("Обновление пользователя с ID: {}", userId);
         User existingUser = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с ID {} не найден", userId);
-                    return new NotFoundException("Пользователь не найден");
-                });
+                .orElseThrow(() -> NotFoundException.USER_NOT_FOUND);
 
         if (userDto.getName() != null) {
             existingUser.setName(userDto.getName());
         }
-        if (userDto.getEmail() != null) {
-            if (userRepository.existsByEmail(userDto.getEmail()) && !userDto.getEmail().equals(existingUser.getEmail())) {
+        if (userDto.getEmail() != null && !userDto.getEmail().equals(existingUser.getEmail())) {
+            if (emailBloomFilter.isTaken(userDto.getEmail())) {
                 throw new ConflictException("Этот email уже используется другим пользователем");
             }
             existingUser.setEmail(userDto.getEmail());
         }
 
-        User updatedUser = userRepository.save(existingUser);
+        User updatedUser = saveAndCheckEmail(existingUser, "Этот email уже используется другим пользователем");
+        emailBloomFilter.add(updatedUser.getEmail());
+        userReplicator.replicate(updatedUser);
+        itemViewSingleFlight.invalidateAll();
+        invalidationBus.publish(InvalidationEvent.userUpdated(userId));
         return userMapper.toDto(updatedUser);
     }
 
     public UserDto getUserById(Long userId) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+                .orElseThrow(() -> NotFoundException.USER_NOT_FOUND);
         return userMapper.toDto(user);
     }
 
+    public List<UserDto> getUsersByIds(List<Long> userIds) {
+        List<Long> ids = BatchIds.normalize(userIds, maxBatchIds);
+        log.debug("Получение {} пользователей по списку ID", ids.size());
+        return BatchIds.inRequestedOrder(ids, userRepository.findAllById(ids), User::getId).stream()
+                .map(userMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
     public List<UserDto> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(userMapper::toDto)
@@ -69,10 +101,28 @@ public class UserService {
     @Transactional
     public void deleteUser(Long userId) {
         log.info("Удаление пользователя с ID: {}", userId);
-        if (!userRepository.existsById(userId)) {
-            log.error("Попытка удаления несуществующего пользователя с ID: {}", userId);
-            throw new NotFoundException("Пользователь не найден");
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> NotFoundException.USER_NOT_FOUND);
+        user.setDeleted(true);
+        int items = itemRepository.markDeletedByOwnerId(userId);
+        log.debug("Пользователь ID {} и его вещи ({}) помечены удалёнными", userId, items);
+        itemSearchCache.invalidateAll();
+        itemViewSingleFlight.invalidateAll();
+        itemSuggestIndex.removeOwner(userId);
+        itemGeoIndex.removeOwner(userId);
+        userReplicator.replicateDeleted(userId);
+        invalidationBus.publish(InvalidationEvent.userDeleted(userId));
+    }
+
+    private User saveAndCheckEmail(User user, String conflictMessage) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String cause = e.getMostSpecificCause().getMessage();
+            if (cause != null && cause.toLowerCase().contains("uq_user_email")) {
+                throw new ConflictException(conflictMessage);
+            }
+            throw e;
         }
-        userRepository.deleteById(userId);
     }
 }
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class HotKeyRepository {
+    static final String ITEM = "ITEM";
+    static final String OWNER = "OWNER";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Long> findIds(String kind, int limit) {
+        return jdbcTemplate.queryForList("SELECT key_id FROM hot_keys WHERE kind = ? ORDER BY score DESC LIMIT ?",
+                Long.class, kind, limit);
+    }
+
+    public void replace(String kind, List<long[]> keys) {
+        jdbcTemplate.update("DELETE FROM hot_keys WHERE kind = ?", kind);
+        jdbcTemplate.batchUpdate("INSERT INTO hot_keys (kind, key_id, score) VALUES (?, ?, ?)", keys, keys.size(),
+                (statement, key) -> {
+                    statement.setString(1, kind);
+                    statement.setLong(2, key[0]);
+                    statement.setLong(3, key[1]);
+                });
+    }
+}
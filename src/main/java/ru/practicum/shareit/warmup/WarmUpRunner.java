@@ -0,0 +1,316 @@
+package ru.practicum.shareit.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.common.FieldSet;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRelatedReader;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.ItemTrendingTracker;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@Slf4j
+public class WarmUpRunner implements ApplicationRunner {
+    private final HikariDataSource writeDataSource;
+    private final HikariDataSource readDataSource;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transaction;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRelatedReader itemRelatedReader;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final BookingMapper bookingMapper;
+    private final ItemMapper itemMapper;
+    private final ItemTrendingTracker trendingTracker;
+    private final HotKeyRepository hotKeyRepository;
+    private final boolean enabled;
+    private final Duration timeout;
+    private final int hotItems;
+    private final int mapperIterations;
+
+    public WarmUpRunner(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                        @Qualifier("readDataSource") HikariDataSource readDataSource,
+                        PlatformTransactionManager transactionManager,
+                        BookingRepository bookingRepository,
+                        ItemRepository itemRepository,
+                        ItemRelatedReader itemRelatedReader,
+                        CommentRepository commentRepository,
+                        UserRepository userRepository,
+                        BookingService bookingService,
+                        ItemService itemService,
+                        BookingMapper bookingMapper,
+                        ItemMapper itemMapper,
+                        ItemTrendingTracker trendingTracker,
+                        HotKeyRepository hotKeyRepository,
+                        @Value("${shareit.warmup.enabled:true}") boolean enabled,
+                        @Value("${shareit.warmup.timeout:30s}") Duration timeout,
+                        @Value("${shareit.warmup.hot-items:100}") int hotItems,
+                        @Value("${shareit.warmup.mapper-iterations:2000}") int mapperIterations) {
+        this.writeDataSource = writeDataSource;
+        this.readDataSource = readDataSource;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.itemRelatedReader = itemRelatedReader;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.bookingService = bookingService;
+        this.itemService = itemService;
+        this.bookingMapper = bookingMapper;
+        this.itemMapper = itemMapper;
+        this.trendingTracker = trendingTracker;
+        this.hotKeyRepository = hotKeyRepository;
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.hotItems = hotItems;
+        this.mapperIterations = mapperIterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            log.info("Прогрев отключён");
+            return;
+        }
+        Map<String, Runnable> steps = new LinkedHashMap<>();
+        steps.put("пулы соединений", this::fillPools);
+        steps.put("запросы", this::prepareQueries);
+        steps.put("горячие ключи", this::loadHotKeys);
+        steps.put("мапперы", this::exerciseMappers);
+
+        long started = System.nanoTime();
+        long deadline = started + timeout.toNanos();
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Map.Entry<String, Runnable> step : steps.entrySet()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    log.warn("Время прогрева {} исчерпано, шаг '{}' пропущен", timeout, step.getKey());
+                    continue;
+                }
+                runStep(executor, step.getKey(), step.getValue(), remaining);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Прогрев завершён за {} мс", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void saveHotKeys() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<ItemTrendingTracker.Trend> trends = trendingTracker.top(hotItems);
+            if (trends.isEmpty()) {
+                log.debug("Нет обращений к вещам, горячие ключи прошлого запуска сохранены без изменений");
+                return;
+            }
+            List<long[]> items = new ArrayList<>(trends.size());
+            Map<Long, Long> owners = new LinkedHashMap<>();
+            for (ItemTrendingTracker.Trend trend : trends) {
+                items.add(new long[]{trend.itemId(), trend.score()});
+            }
+            readOnlyTransaction.executeWithoutResult(status -> itemRepository
+                    .findAllById(trends.stream().map(ItemTrendingTracker.Trend::itemId).toList())
+                    .forEach(item -> owners.merge(item.getOwner().getId(), 1L, Long::sum)));
+            List<long[]> ownerKeys = new ArrayList<>(owners.size());
+            owners.forEach((ownerId, score) -> ownerKeys.add(new long[]{ownerId, score}));
+
+            transaction.executeWithoutResult(status -> {
+                hotKeyRepository.replace(HotKeyRepository.ITEM, items);
+                hotKeyRepository.replace(HotKeyRepository.OWNER, ownerKeys);
+            });
+            log.info("Сохранено горячих ключей: вещей {}, владельцев {}", items.size(), ownerKeys.size());
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сохранить горячие ключи: {}", e.getMessage());
+        }
+    }
+
+    private void runStep(ExecutorService executor, String name, Runnable step, long remainingNanos) {
+        long started = System.nanoTime();
+        Future<?> future = executor.submit(step);
+        try {
+            future.get(remainingNanos, TimeUnit.NANOSECONDS);
+            log.info("Шаг прогрева '{}' выполнен за {} мс", name,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Шаг прогрева '{}' не уложился в {}", name, timeout);
+        } catch (ExecutionException e) {
+            log.warn("Шаг прогрева '{}' завершился ошибкой: {}", name, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        }
+    }
+
+    private void fillPools() {
+        fillPool(writeDataSource);
+        fillPool(readDataSource);
+    }
+
+    private void fillPool(HikariDataSource dataSource) {
+        List<Connection> connections = new ArrayList<>(dataSource.getMaximumPoolSize());
+        try {
+            for (int i = 0; i < dataSource.getMaximumPoolSize(); i++) {
+                connections.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            log.warn("Пул {} заполнен частично: {} соединений", dataSource.getPoolName(), connections.size());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Не удалось вернуть соединение в пул {}", dataSource.getPoolName());
+                }
+            }
+        }
+    }
+
+    private Long firstHotKey(String kind) {
+        try {
+            return hotKeyRepository.findIds(kind, 1).stream().findFirst().orElse(-1L);
+        } catch (DataAccessException e) {
+            log.warn("Горячие ключи {} недоступны, запросы прогреваются на пустых параметрах: {}", kind,
+                    e.getMessage());
+            return -1L;
+        }
+    }
+
+    private void prepareQueries() {
+        Long itemId = firstHotKey(HotKeyRepository.ITEM);
+        Long ownerId = firstHotKey(HotKeyRepository.OWNER);
+        LocalDateTime now = LocalDateTime.now();
+        Pageable page = PageRequest.of(0, 10);
+        List<Long> itemIds = List.of(itemId);
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            bookingRepository.findByBookerIdOrderByStartDesc(ownerId, page, Booking.class);
+            bookingRepository.findByBookerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING, page,
+                    Booking.class);
+            bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId, now, now, page,
+                    Booking.class);
+            bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(ownerId, now, page, Booking.class);
+            bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(ownerId, now, page, Booking.class);
+            bookingRepository.findByItemOwnerIdOrderByStartDesc(ownerId, page, Booking.class);
+            bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING, page,
+                    Booking.class);
+            bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId, now, now, page,
+                    Booking.class);
+            bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, now, page, Booking.class);
+            bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, now, page, Booking.class);
+            bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(itemId, now,
+                    BookingStatus.APPROVED);
+            bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(itemId, now,
+                    BookingStatus.APPROVED);
+            bookingRepository.findLastBookingsForItems(itemIds, now, BookingStatus.APPROVED);
+            bookingRepository.findNextBookingsForItems(itemIds, now, BookingStatus.APPROVED);
+            bookingRepository.findPastApprovedBookingsForItemAndUser(itemId, ownerId, now, BookingStatus.APPROVED);
+            bookingRepository.countOwnerBookingsByState(ownerId, now);
+            bookingRepository.findTopOwnerBookingsByState(ownerId, now, 1);
+
+            itemRepository.findById(itemId);
+            itemRepository.searchAvailableItems("прогрев");
+            itemRepository.findByOwnerIdOrderByIdAsc(ownerId);
+            itemRelatedReader.findRelated(itemId);
+
+            commentRepository.findLatestByItemId(itemId, page);
+            commentRepository.findLatestByItemIdIn(itemIds, 1);
+
+            userRepository.findById(ownerId);
+            userRepository.existsByEmail("warmup@shareit.local");
+        });
+    }
+
+    private void loadHotKeys() {
+        List<Long> itemIds = hotKeyRepository.findIds(HotKeyRepository.ITEM, hotItems);
+        List<Long> ownerIds = hotKeyRepository.findIds(HotKeyRepository.OWNER, hotItems);
+        if (!itemIds.isEmpty()) {
+            itemService.getItemsByIds(itemIds, -1L);
+        }
+        for (Long ownerId : ownerIds) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                bookingService.getOwnerBookings(ownerId, "ALL", 0, 10);
+                bookingService.getOwnerSummary(ownerId, 3);
+            } catch (RuntimeException e) {
+                log.debug("Горячий владелец ID {} пропущен: {}", ownerId, e.getMessage());
+            }
+        }
+        log.info("Загружено горячих ключей: вещей {}, владельцев {}", itemIds.size(), ownerIds.size());
+    }
+
+    private void exerciseMappers() {
+        User owner = User.builder().id(1L).name("Прогрев").email("warmup@shareit.local").build();
+        Item item = Item.builder().id(1L).name("Прогрев").description("Прогрев").available(true).owner(owner).build();
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        for (long i = 0; i < 10; i++) {
+            bookings.add(Booking.builder().id(i).start(now).end(now.plusDays(1))
+                    .status(BookingStatus.APPROVED).item(item).booker(owner).build());
+        }
+        List<Item> items = List.of(item, item, item);
+        FieldSet bookingFields = FieldSet.parse(String.join(",", BookingMapper.VIEW_FIELDS),
+                BookingMapper.VIEW_FIELDS);
+        FieldSet itemFields = FieldSet.parse(String.join(",", ItemMapper.VIEW_FIELDS), ItemMapper.VIEW_FIELDS);
+        for (int i = 0; i < mapperIterations && !Thread.currentThread().isInterrupted(); i++) {
+            bookingMapper.toDtoList(bookings);
+            bookingMapper.toViewList(bookings, bookingFields);
+            itemMapper.toViewList(itemMapper.toDtoList(items), itemFields);
+        }
+    }
+}
@@ -0,0 +1,3 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
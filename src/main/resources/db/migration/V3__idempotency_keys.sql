@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(512) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(16) DEFAULT 'COMPLETED' NOT NULL,
+    response TEXT,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotency_key PRIMARY KEY (idempotency_key)
+);
+
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS status VARCHAR(16) DEFAULT 'COMPLETED' NOT NULL;
+ALTER TABLE idempotency_keys ALTER COLUMN response DROP NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_created ON idempotency_keys (created);
@@ -0,0 +1,17 @@
+CREATE TABLE IF NOT EXISTS item_recommendations (
+    item_id BIGINT NOT NULL,
+    related_item_id BIGINT NOT NULL,
+    score INTEGER NOT NULL,
+    CONSTRAINT pk_item_recommendation PRIMARY KEY (item_id, related_item_id),
+    CONSTRAINT fk_recommendation_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    CONSTRAINT fk_recommendation_related FOREIGN KEY (related_item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS item_recommendation_state (
+    id SMALLINT NOT NULL,
+    next_booking_id BIGINT NOT NULL,
+    refreshed TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_item_recommendation_state PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_recommendation_related ON item_recommendations (related_item_id);
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS hot_keys (
+    kind VARCHAR(16) NOT NULL,
+    key_id BIGINT NOT NULL,
+    score BIGINT NOT NULL,
+    CONSTRAINT pk_hot_keys PRIMARY KEY (kind, key_id)
+);
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS shard_layout (
+    id SMALLINT NOT NULL,
+    shard_count INTEGER NOT NULL,
+    shard_index INTEGER NOT NULL,
+    CONSTRAINT pk_shard_layout PRIMARY KEY (id)
+);
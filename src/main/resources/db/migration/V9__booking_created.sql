@@ -0,0 +1 @@
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS created TIMESTAMP WITHOUT TIME ZONE;
@@ -4,6 +4,7 @@ CREATE TABLE IF NOT EXISTS users (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   name VARCHAR(255) NOT NULL,
   email VARCHAR(512) NOT NULL,
+  deleted BOOLEAN DEFAULT FALSE NOT NULL,
   CONSTRAINT pk_user PRIMARY KEY (id),
   CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
@@ -15,6 +16,10 @@ CREATE TABLE IF NOT EXISTS items (
     is_available BOOLEAN NOT NULL,
     owner_id BIGINT NOT NULL,
     request_id BIGINT,
+    comment_count INTEGER DEFAULT 0 NOT NULL,
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION,
+    deleted BOOLEAN DEFAULT FALSE NOT NULL,
     CONSTRAINT pk_item PRIMARY KEY (id),
     CONSTRAINT fk_item_owner FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE
 );
@@ -26,6 +31,7 @@ CREATE TABLE IF NOT EXISTS bookings (
     item_id BIGINT NOT NULL,
     booker_id BIGINT NOT NULL,
     status VARCHAR(20) NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
     CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE,
@@ -53,11 +59,56 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT fk_comment_author FOREIGN KEY (author_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(512) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(16) DEFAULT 'COMPLETED' NOT NULL,
+    response TEXT,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    lease_until TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_idempotency_key PRIMARY KEY (idempotency_key)
+);
+
+CREATE TABLE IF NOT EXISTS item_recommendations (
+    item_id BIGINT NOT NULL,
+    related_item_id BIGINT NOT NULL,
+    score INTEGER NOT NULL,
+    CONSTRAINT pk_item_recommendation PRIMARY KEY (item_id, related_item_id),
+    CONSTRAINT fk_recommendation_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    CONSTRAINT fk_recommendation_related FOREIGN KEY (related_item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS item_recommendation_state (
+    id SMALLINT NOT NULL,
+    next_booking_id BIGINT NOT NULL,
+    refreshed TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_item_recommendation_state PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS hot_keys (
+    kind VARCHAR(16) NOT NULL,
+    key_id BIGINT NOT NULL,
+    score BIGINT NOT NULL,
+    CONSTRAINT pk_hot_keys PRIMARY KEY (kind, key_id)
+);
+
+CREATE TABLE IF NOT EXISTS shard_layout (
+    id SMALLINT NOT NULL,
+    shard_count INTEGER NOT NULL,
+    shard_index INTEGER NOT NULL,
+    CONSTRAINT pk_shard_layout PRIMARY KEY (id)
+);
+
 CREATE INDEX IF NOT EXISTS idx_item_owner ON items (owner_id);
 CREATE INDEX IF NOT EXISTS idx_item_request ON items (request_id);
 CREATE INDEX IF NOT EXISTS idx_booking_item ON bookings (item_id);
 CREATE INDEX IF NOT EXISTS idx_booking_booker ON bookings (booker_id);
 CREATE INDEX IF NOT EXISTS idx_booking_status ON bookings (status);
+CREATE INDEX IF NOT EXISTS idx_booking_status_start ON bookings (status, start_date);
 CREATE INDEX IF NOT EXISTS idx_request_requestor ON requests (requestor_id);
 CREATE INDEX IF NOT EXISTS idx_comment_item ON comments (item_id);
-CREATE INDEX IF NOT EXISTS idx_comment_author ON comments (author_id);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_comment_author ON comments (author_id);
+CREATE INDEX IF NOT EXISTS idx_user_deleted ON users (deleted);
+CREATE INDEX IF NOT EXISTS idx_item_deleted ON items (deleted);
+CREATE INDEX IF NOT EXISTS idx_idempotency_created ON idempotency_keys (created);
+CREATE INDEX IF NOT EXISTS idx_recommendation_related ON item_recommendations (related_item_id);
\ No newline at end of file
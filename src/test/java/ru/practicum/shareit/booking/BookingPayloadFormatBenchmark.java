@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение размера и стоимости сериализации страницы бронирований в JSON, CBOR и Smile.
+ * Запуск: mvn test -Dtest=BookingPayloadFormatBenchmark
+ */
+class BookingPayloadFormatBenchmark {
+    private static final int[] PAGE_SIZES = {10, 50, 200};
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    @Test
+    void compareFormats() throws IOException {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("cbor", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+        mappers.put("smile", Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build());
+
+        for (int pageSize : PAGE_SIZES) {
+            List<BookingResponseDto> page = bookingsPage(pageSize);
+            int jsonBytes = 0;
+            for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+                ObjectMapper mapper = entry.getValue();
+                byte[] payload = mapper.writeValueAsBytes(page);
+                for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                    mapper.writeValueAsBytes(page);
+                }
+                long started = System.nanoTime();
+                for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                    mapper.writeValueAsBytes(page);
+                }
+                double microsPerPage = (System.nanoTime() - started) / 1_000.0 / MEASURED_ROUNDS;
+
+                System.out.printf("size=%d format=%s bytes=%d gzip=%d serialize=%.1fus%n",
+                        pageSize, entry.getKey(), payload.length, gzip(payload).length, microsPerPage);
+                if (entry.getKey().equals("json")) {
+                    jsonBytes = payload.length;
+                } else {
+                    assertTrue(payload.length < jsonBytes);
+                }
+            }
+        }
+    }
+
+    private List<BookingResponseDto> bookingsPage(int size) {
+        List<BookingResponseDto> page = new ArrayList<>(size);
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 10, 0);
+        for (long i = 1; i <= size; i++) {
+            page.add(BookingResponseDto.builder()
+                    .id(i)
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i + 2))
+                    .status(i % 3 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED)
+                    .booker(new UserDto(1000 + i, "Пользователь " + i, "user" + i + "@example.com"))
+                    .item(ItemDto.builder()
+                            .id(500 + i % 20)
+                            .name("Вещь " + i % 20)
+                            .build())
+                    .build());
+        }
+        return page;
+    }
+
+    private byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сравнение пропускной способности блокирующего и реактивного чтения бронирований владельца.
+ * Запуск: mvn test -Dtest=ReactiveBookingLoadBenchmark
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit.reactive.enabled=true",
+        "server.tomcat.threads.max=16",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN",
+        "logging.level.org.springframework.transaction.interceptor=WARN",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"
+})
+class ReactiveBookingLoadBenchmark {
+    private static final int ITEMS = 20;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final int CLIENTS = 64;
+    private static final int WARMUP_REQUESTS = 1_000;
+    private static final int MEASURED_REQUESTS = 5_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void compareBookingReads() throws Exception {
+        Long ownerId = seed();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(CLIENTS))
+                .build();
+
+        for (String path : List.of("/bookings/owner", "/reactive/bookings/owner")) {
+            URI uri = URI.create("http://localhost:" + port + path + "?state=ALL&from=0&size=20");
+            run(client, uri, ownerId, WARMUP_REQUESTS);
+            long[] latencies = run(client, uri, ownerId, MEASURED_REQUESTS);
+            long totalNanos = latencies[latencies.length - 1];
+            long[] sorted = Arrays.copyOf(latencies, latencies.length - 1);
+            Arrays.sort(sorted);
+
+            System.out.printf("path=%s clients=%d requests=%d throughput=%.0f req/s p50=%.2fms p99=%.2fms%n",
+                    path, CLIENTS, MEASURED_REQUESTS, MEASURED_REQUESTS / (totalNanos / 1e9),
+                    sorted[sorted.length / 2] / 1e6, sorted[sorted.length * 99 / 100] / 1e6);
+        }
+    }
+
+    private long[] run(HttpClient client, URI uri, Long ownerId, int requests) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("X-Sharer-User-Id", ownerId.toString())
+                .GET()
+                .build();
+        long[] latencies = new long[requests + 1];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(CLIENTS);
+        long started = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            futures.add(workers.submit(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    long sent = System.nanoTime();
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    latencies[i] = System.nanoTime() - sent;
+                    if (response.statusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        latencies[requests] = System.nanoTime() - started;
+        workers.shutdown();
+        assertEquals(0, failures.get());
+        return latencies;
+    }
+
+    private Long seed() {
+        Long ownerId = userService.createUser(new UserDto(null, "Владелец", "owner@bench.ru")).getId();
+        Long bookerId = userService.createUser(new UserDto(null, "Арендатор", "booker@bench.ru")).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < ITEMS; i++) {
+            ItemDto item = itemService.createItem(ItemDto.builder()
+                    .name("Вещь " + i)
+                    .description("Описание " + i)
+                    .available(true)
+                    .build(), ownerId);
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                BookingResponseDto booking = bookingService.createBooking(BookingDto.builder()
+                        .itemId(item.getId())
+                        .start(start.plusDays(j))
+                        .end(start.plusDays(j).plusHours(12))
+                        .build(), bookerId);
+                if (j % 2 == 0) {
+                    bookingService.approveBooking(booking.getId(), ownerId, true);
+                }
+            }
+        }
+        return ownerId;
+    }
+}
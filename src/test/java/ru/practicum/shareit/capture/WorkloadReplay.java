@@ -0,0 +1,188 @@
+package ru.practicum.shareit.capture;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Воспроизведение нагрузки, записанной WorkloadCaptureFilter, против запущенного экземпляра.
+ * Запуск: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.practicum.shareit.capture.WorkloadReplay
+ * -Dexec.args="workload.jsonl http://localhost:8080 2.0 1000"
+ */
+public final class WorkloadReplay {
+    private static final long[] BUCKET_BOUNDS_MICROS = {500, 1_000, 2_000, 5_000, 10_000, 20_000, 50_000,
+            100_000, 200_000, 500_000, 1_000_000, 2_000_000};
+
+    private WorkloadReplay() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Использование: WorkloadReplay <файл> <адрес> [скорость, 0 - без пауз] "
+                    + "[максимум одновременных запросов]");
+            System.exit(1);
+        }
+        Path file = Path.of(args[0]);
+        String target = args[1].replaceAll("/+$", "");
+        double speed = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+        int maxInFlight = args.length > 3 ? Integer.parseInt(args[3]) : 1_000;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+        long started = System.nanoTime();
+        long firstOffset = -1;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                CapturedRequest captured = objectMapper.readValue(line, CapturedRequest.class);
+                if (firstOffset < 0) {
+                    firstOffset = captured.offsetMillis();
+                }
+                if (speed > 0) {
+                    long dueNanos = started + (long) ((captured.offsetMillis() - firstOffset) / speed * 1_000_000);
+                    long waitNanos = dueNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                }
+                Stats endpoint = stats.computeIfAbsent(endpoint(captured), key -> new Stats());
+                if (!"GET".equals(captured.method())) {
+                    inFlight.acquire(maxInFlight);
+                    try {
+                        replay(client, target, captured, endpoint);
+                    } finally {
+                        inFlight.release(maxInFlight);
+                    }
+                    continue;
+                }
+                inFlight.acquire();
+                executor.submit(() -> {
+                    try {
+                        replay(client, target, captured, endpoint);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        report(stats, System.nanoTime() - started);
+    }
+
+    private static void replay(HttpClient client, String target, CapturedRequest captured, Stats endpoint) {
+        String uri = target + captured.path() + (captured.query() == null ? "" : "?" + captured.query());
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri))
+                .timeout(Duration.ofSeconds(30))
+                .method(captured.method(), captured.body() == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(captured.body()));
+        captured.headers().forEach(request::header);
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            endpoint.record((System.nanoTime() - sent) / 1_000, response.statusCode(), captured.status());
+        } catch (IOException e) {
+            endpoint.failed();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            endpoint.failed();
+        }
+    }
+
+    private static String endpoint(CapturedRequest captured) {
+        return captured.method() + " " + captured.path().replaceAll("/\\d+", "/{id}");
+    }
+
+    private static void report(Map<String, Stats> stats, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long total = stats.values().stream().mapToLong(endpoint -> endpoint.count.sum()).sum();
+        System.out.printf("requests=%d elapsed=%.1fs throughput=%.0f req/s%n", total, seconds, total / seconds);
+        stats.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> entry.getValue().print(entry.getKey(), seconds));
+    }
+
+    private static final class Stats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder statusMismatches = new LongAdder();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1);
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        private void record(long micros, int status, int capturedStatus) {
+            count.increment();
+            if (status != capturedStatus) {
+                statusMismatches.increment();
+            }
+            latencies.add(micros);
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MICROS.length && micros > BUCKET_BOUNDS_MICROS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+        }
+
+        private void failed() {
+            failures.increment();
+        }
+
+        private void print(String endpoint, double seconds) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            sorted.sort(null);
+            if (sorted.isEmpty()) {
+                System.out.printf("%s failures=%d%n", endpoint, failures.sum());
+                return;
+            }
+            System.out.printf("%s count=%d throughput=%.1f req/s p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms "
+                            + "failures=%d status-mismatches=%d%n",
+                    endpoint, count.sum(), count.sum() / seconds, percentile(sorted, 50), percentile(sorted, 95),
+                    percentile(sorted, 99), sorted.get(sorted.size() - 1) / 1e3, failures.sum(),
+                    statusMismatches.sum());
+            StringBuilder histogram = new StringBuilder("    ");
+            for (int i = 0; i < buckets.length(); i++) {
+                if (buckets.get(i) > 0) {
+                    histogram.append(i < BUCKET_BOUNDS_MICROS.length
+                                    ? "<=" + BUCKET_BOUNDS_MICROS[i] / 1e3 + "ms"
+                                    : ">" + BUCKET_BOUNDS_MICROS[i - 1] / 1e3 + "ms")
+                            .append(':').append(buckets.get(i)).append(' ');
+                }
+            }
+            System.out.println(histogram.toString().stripTrailing());
+        }
+
+        private static double percentile(List<Long> sorted, int percentile) {
+            return sorted.get(Math.min(sorted.size() - 1, sorted.size() * percentile / 100)) / 1e3;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemGeoIndexTest {
+    private static final double LATITUDE = 55.7558;
+    private static final double LONGITUDE = 37.6173;
+
+    private ItemRepository itemRepository;
+    private ItemGeoIndex index;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        ShardRouter shardRouter = mock(ShardRouter.class);
+        when(shardRouter.scatter(any())).thenAnswer(invocation ->
+                ((IntFunction<List<?>>) invocation.getArgument(0)).apply(0));
+        index = new ItemGeoIndex(itemRepository, shardRouter, mock(PlatformTransactionManager.class), 5,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void rebuildFindsScannedItems() {
+        when(itemRepository.findGeoRows()).thenReturn(List.of(row(1L, 10L, LATITUDE, LONGITUDE),
+                row(2L, 10L, LATITUDE + 1, LONGITUDE)));
+
+        index.rebuild();
+
+        assertThat(ids(index.nearby(LATITUDE, LONGITUDE, 10))).containsExactly(1L);
+        assertThat(ids(index.nearby(LATITUDE, LONGITUDE, 200))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void rebuildKeepsChangesMadeDuringTheScan() {
+        when(itemRepository.findGeoRows()).thenAnswer(invocation -> {
+            index.put(3L, 20L, LATITUDE, LONGITUDE + 0.01);
+            index.remove(2L);
+            return List.of(row(1L, 10L, LATITUDE, LONGITUDE), row(2L, 10L, LATITUDE, LONGITUDE + 0.02));
+        });
+
+        index.rebuild();
+
+        assertThat(ids(index.nearby(LATITUDE, LONGITUDE, 10))).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void rebuildReplaysOwnerRemovalMadeDuringTheScan() {
+        when(itemRepository.findGeoRows()).thenAnswer(invocation -> {
+            index.removeOwner(10L);
+            return List.of(row(1L, 10L, LATITUDE, LONGITUDE), row(2L, 20L, LATITUDE, LONGITUDE));
+        });
+
+        index.rebuild();
+
+        assertThat(ids(index.nearby(LATITUDE, LONGITUDE, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void changesAfterRebuildApplyDirectly() {
+        when(itemRepository.findGeoRows()).thenReturn(List.of(row(1L, 10L, LATITUDE, LONGITUDE)));
+        index.rebuild();
+
+        index.put(1L, 10L, LATITUDE + 1, LONGITUDE);
+        index.put(2L, 10L, LATITUDE, LONGITUDE);
+
+        assertThat(ids(index.nearby(LATITUDE, LONGITUDE, 10))).containsExactly(2L);
+    }
+
+    private static List<Long> ids(List<ItemGeoIndex.Nearby> found) {
+        return found.stream().map(ItemGeoIndex.Nearby::itemId).sorted().toList();
+    }
+
+    private static ItemGeoRow row(Long id, Long ownerId, double latitude, double longitude) {
+        return new ItemGeoRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return latitude;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return longitude;
+            }
+        };
+    }
+}
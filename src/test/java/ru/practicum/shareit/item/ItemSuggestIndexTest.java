@@ -0,0 +1,206 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSuggestIndexTest {
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+
+    @Test
+    void prefixMatchesIgnoringCase() {
+        ItemSuggestIndex index = index(1024, row(1, 10, "Дрель", 0), row(2, 10, "дрезина", 0),
+                row(3, 10, "Дрова", 0), row(4, 10, "Пила", 0), row(5, 10, "drill", 0), row(6, 10, "DRUM", 0),
+                row(7, 10, "Dry", 0), row(8, 10, "dig", 0));
+
+        assertThat(names(index.suggest("дре", 10))).containsExactly("дрезина", "Дрель");
+        assertThat(names(index.suggest("ДРЕ", 10))).containsExactly("дрезина", "Дрель");
+        assertThat(names(index.suggest("Dr", 10))).containsExactly("drill", "DRUM", "Dry");
+        assertThat(names(index.suggest("пила", 10))).containsExactly("Пила");
+        assertThat(names(index.suggest("пилы", 10))).isEmpty();
+        assertThat(names(index.suggest("a", 10))).isEmpty();
+        assertThat(names(index.suggest("я", 10))).isEmpty();
+        assertThat(index.suggest("", 10)).hasSize(8);
+    }
+
+    @Test
+    void prefixRangeEndsAtTheLastMatch() {
+        ItemSuggestIndex index = index(1024, row(1, 10, "a", 0), row(2, 10, "ab", 0), row(3, 10, "abc", 0),
+                row(4, 10, "abd", 0), row(5, 10, "ac", 0), row(6, 10, "b", 0));
+
+        assertThat(names(index.suggest("ab", 10))).containsExactly("ab", "abc", "abd");
+        assertThat(names(index.suggest("abc", 10))).containsExactly("abc");
+        assertThat(names(index.suggest("b", 10))).containsExactly("b");
+    }
+
+    @Test
+    void topByPopularityThenNameThenId() {
+        ItemSuggestIndex index = index(1024, row(1, 10, "a-b", 5), row(2, 10, "a-a", 5), row(3, 10, "a-d", 3),
+                row(4, 10, "a-c", 3), row(5, 10, "a-e", 1), row(6, 10, "a-f", 0), row(7, 10, "b", 100));
+
+        assertThat(names(index.suggest("a", 3))).containsExactly("a-a", "a-b", "a-c");
+        assertThat(names(index.suggest("a", 10))).containsExactly("a-a", "a-b", "a-c", "a-d", "a-e", "a-f");
+        assertThat(names(index.suggest("a-d", 1))).containsExactly("a-d");
+    }
+
+    @Test
+    void equalNamesAndPopularityOrderById() {
+        ItemSuggestIndex index = index(1024, row(9, 10, "пила", 2), row(4, 10, "Пила", 2), row(7, 10, "пила", 2),
+                row(8, 10, "пила", 3));
+
+        assertThat(ids(index.suggest("пи", 10))).containsExactly(8L, 4L, 7L, 9L);
+        assertThat(ids(index.suggest("пи", 2))).containsExactly(8L, 4L);
+    }
+
+    @Test
+    void topSkipsTheMostPopularOutsideTheRange() {
+        ItemSuggestIndex index = index(1024, row(1, 10, "aa", 1), row(2, 10, "ab", 2), row(3, 10, "b", 50),
+                row(4, 10, "ba", 40), row(5, 10, "c", 60));
+
+        assertThat(names(index.suggest("a", 1))).containsExactly("ab");
+        assertThat(names(index.suggest("b", 5))).containsExactly("b", "ba");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1024})
+    void putAddsNewItemsAndRenamesKeepingPopularity(int mergeThreshold) {
+        ItemSuggestIndex index = index(mergeThreshold, row(1, 10, "Дрель", 5), row(2, 10, "Дрова", 1));
+
+        index.put(3L, "Дрезина", 20L);
+        index.put(1L, "Перфоратор", 10L);
+
+        assertThat(names(index.suggest("др", 10))).containsExactly("Дрова", "Дрезина");
+        assertThat(names(index.suggest("пер", 10))).containsExactly("Перфоратор");
+        index.put(3L, "Перфоратор мини", 20L);
+        assertThat(names(index.suggest("пер", 10))).containsExactly("Перфоратор", "Перфоратор мини");
+        assertThat(names(index.suggest("др", 10))).containsExactly("Дрова");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1024})
+    void removeHidesBaseAndOverlayItems(int mergeThreshold) {
+        ItemSuggestIndex index = index(mergeThreshold, row(1, 10, "Дрель", 5), row(2, 10, "Дрова", 1));
+        index.put(3L, "Дрезина", 20L);
+
+        index.remove(1L);
+        index.remove(3L);
+
+        assertThat(names(index.suggest("др", 10))).containsExactly("Дрова");
+        index.put(1L, "Дрель", 10L);
+        assertThat(names(index.suggest("др", 10))).containsExactlyInAnyOrder("Дрель", "Дрова");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1024})
+    void removeOwnerHidesAllOwnerItems(int mergeThreshold) {
+        ItemSuggestIndex index = index(mergeThreshold, row(1, 10, "Дрель", 5), row(2, 20, "Дрова", 1),
+                row(3, 10, "Дрын", 0));
+        index.put(4L, "Дрезина", 10L);
+        index.put(5L, "Дрожжи", 20L);
+
+        index.removeOwner(10L);
+
+        assertThat(names(index.suggest("др", 10))).containsExactly("Дрова", "Дрожжи");
+    }
+
+    @Test
+    void overlayMergesIntoTheSnapshotPastTheThreshold() {
+        ItemSuggestIndex index = index(2, row(1, 10, "a", 3), row(2, 10, "b", 2));
+
+        index.put(3L, "ab", 10L);
+        index.remove(2L);
+        index.put(4L, "aa", 10L);
+        index.put(1L, "ac", 10L);
+
+        assertThat(names(index.suggest("a", 10))).containsExactly("ac", "aa", "ab");
+        assertThat(names(index.suggest("b", 10))).isEmpty();
+    }
+
+    @Test
+    void rebuildReplaysChangesMadeDuringTheScan() {
+        ItemSuggestIndex index = index(1024, row(1, 10, "Дрель", 5));
+        when(itemRepository.findSuggestRows()).thenAnswer(invocation -> {
+            index.put(2L, "Дрезина", 20L);
+            index.remove(1L);
+            index.put(3L, "Дрова", 30L);
+            index.removeOwner(30L);
+            return List.of(row(1, 10, "Дрель", 6), row(4, 40, "Дрын", 1));
+        });
+
+        index.rebuild();
+
+        assertThat(names(index.suggest("др", 10))).containsExactly("Дрын", "Дрезина");
+    }
+
+    @Test
+    void changesAfterRebuildAreNotReplayedAgain() {
+        ItemSuggestIndex index = index(1024, row(1, 10, "Дрель", 5));
+        when(itemRepository.findSuggestRows()).thenAnswer(invocation -> {
+            index.remove(1L);
+            return List.of(row(1, 10, "Дрель", 5));
+        });
+        index.rebuild();
+
+        doReturn(List.of(row(1, 10, "Дрель", 5))).when(itemRepository).findSuggestRows();
+        index.rebuild();
+
+        assertThat(names(index.suggest("др", 10))).containsExactly("Дрель");
+    }
+
+    @SuppressWarnings("unchecked")
+    private ItemSuggestIndex index(int mergeThreshold, ItemSuggestRow... rows) {
+        ShardRouter shardRouter = mock(ShardRouter.class);
+        when(shardRouter.scatter(any())).thenAnswer(invocation ->
+                ((IntFunction<List<?>>) invocation.getArgument(0)).apply(0));
+        when(itemRepository.findSuggestRows()).thenReturn(List.of(rows));
+        ItemSuggestIndex index = new ItemSuggestIndex(itemRepository, shardRouter,
+                mock(PlatformTransactionManager.class), mergeThreshold, new SimpleMeterRegistry());
+        index.rebuild();
+        return index;
+    }
+
+    private static List<String> names(List<ItemSuggestionDto> suggestions) {
+        return suggestions.stream().map(ItemSuggestionDto::getName).toList();
+    }
+
+    private static List<Long> ids(List<ItemSuggestionDto> suggestions) {
+        return suggestions.stream().map(ItemSuggestionDto::getId).toList();
+    }
+
+    private static ItemSuggestRow row(long id, long ownerId, String name, long bookings) {
+        return new ItemSuggestRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Long getBookings() {
+                return bookings;
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.recommendation;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoBookingTaskTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 100})
+    void countsEachPairOncePerBasket(int threshold) {
+        List<int[]> baskets = List.of(new int[]{0, 1, 2}, new int[]{0, 1}, new int[]{1, 2}, new int[]{2, 3},
+                new int[]{0, 1, 2, 3});
+
+        LongIntHashMap pairs = ForkJoinPool.commonPool().invoke(new CoBookingTask(baskets, 0, baskets.size(),
+                threshold));
+
+        Map<Long, Integer> counts = new HashMap<>();
+        pairs.forEach(counts::put);
+        assertThat(counts).containsOnly(
+                Map.entry(CoBookingTask.pair(0, 1), 3),
+                Map.entry(CoBookingTask.pair(0, 2), 2),
+                Map.entry(CoBookingTask.pair(0, 3), 1),
+                Map.entry(CoBookingTask.pair(1, 2), 3),
+                Map.entry(CoBookingTask.pair(1, 3), 1),
+                Map.entry(CoBookingTask.pair(2, 3), 2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3})
+    void countsOnlyTheGivenRange(int threshold) {
+        List<int[]> baskets = List.of(new int[]{0, 1}, new int[]{0, 1}, new int[]{0, 1}, new int[]{1, 2},
+                new int[]{0, 2});
+
+        LongIntHashMap pairs = ForkJoinPool.commonPool().invoke(new CoBookingTask(baskets, 1, 4, threshold));
+
+        assertThat(pairs.size()).isEqualTo(2);
+        assertThat(pairs.get(CoBookingTask.pair(0, 1), 0)).isEqualTo(2);
+        assertThat(pairs.get(CoBookingTask.pair(1, 2), 0)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,204 @@
+package ru.practicum.shareit.recommendation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemRecommendationJobTest {
+    private final List<ItemRecommendationJob> jobs = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        jobs.forEach(ItemRecommendationJob::shutdown);
+    }
+
+    @Test
+    void keepsTopKByScoreThenItemId() {
+        FakeCoBookingRepository repository = new FakeCoBookingRepository();
+        repository.book(1, 10, 20, 30, 40);
+        repository.book(2, 10, 20, 40);
+        repository.book(3, 10, 30, 50);
+        repository.book(4, 10, 50);
+        repository.book(5, 10, 60);
+
+        job(repository, 2).rebuild();
+
+        assertThat(repository.neighbours(10)).containsExactly(List.of(20L, 2L), List.of(30L, 2L));
+        assertThat(repository.neighbours(20)).containsExactly(List.of(10L, 2L), List.of(40L, 2L));
+        assertThat(repository.neighbours(60)).containsExactly(List.of(10L, 1L));
+        assertThat(repository.neighbours(50)).containsExactly(List.of(10L, 2L), List.of(30L, 1L));
+    }
+
+    @Test
+    void keepsEveryNeighbourBelowTopK() {
+        FakeCoBookingRepository repository = new FakeCoBookingRepository();
+        repository.book(1, 3, 1, 2);
+        repository.book(2, 2, 1);
+
+        job(repository, 10).rebuild();
+
+        assertThat(repository.neighbours(1)).containsExactly(List.of(2L, 2L), List.of(3L, 1L));
+        assertThat(repository.neighbours(3)).containsExactly(List.of(1L, 1L), List.of(2L, 1L));
+        assertThat(repository.rows).hasSize(6);
+    }
+
+    @Test
+    void incrementalRefreshMatchesFullRebuild() {
+        FakeCoBookingRepository incremental = new FakeCoBookingRepository();
+        FakeCoBookingRepository full = new FakeCoBookingRepository();
+        for (FakeCoBookingRepository repository : List.of(incremental, full)) {
+            repository.book(1, 1, 2, 3);
+            repository.book(2, 2, 3, 4);
+            repository.book(3, 5, 6);
+            repository.book(4, 1, 4, 7);
+        }
+        ItemRecommendationJob incrementalJob = job(incremental, 2);
+        incrementalJob.refresh();
+        for (FakeCoBookingRepository repository : List.of(incremental, full)) {
+            repository.book(5, 3, 4, 8);
+            repository.book(2, 1);
+            repository.book(6, 6, 7);
+        }
+
+        incrementalJob.refresh();
+        job(full, 2).rebuild();
+
+        assertThat(incremental.affected).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 6L, 7L, 8L);
+        assertThat(incremental.sortedRows()).isEqualTo(full.sortedRows());
+        assertThat(incremental.neighbours(5)).containsExactly(List.of(6L, 1L));
+    }
+
+    private ItemRecommendationJob job(FakeCoBookingRepository repository, int topK) {
+        ItemRecommendationJob job = new ItemRecommendationJob(repository, mock(PlatformTransactionManager.class),
+                2, topK, 200, 1, 500, new SimpleMeterRegistry());
+        jobs.add(job);
+        return job;
+    }
+
+    private static class FakeCoBookingRepository extends CoBookingRepository {
+        private final List<long[]> bookings = new ArrayList<>();
+        private final List<long[]> rows = new ArrayList<>();
+        private List<Long> affected = List.of();
+        private Long nextBookingId;
+
+        FakeCoBookingRepository() {
+            super(null);
+        }
+
+        void book(long bookerId, long... itemIds) {
+            for (long itemId : itemIds) {
+                bookings.add(new long[]{bookings.size() + 1, bookerId, itemId});
+            }
+        }
+
+        List<List<Long>> neighbours(long itemId) {
+            return rows.stream()
+                    .filter(row -> row[0] == itemId)
+                    .map(row -> List.of(row[1], row[2]))
+                    .toList();
+        }
+
+        List<List<Long>> sortedRows() {
+            return rows.stream()
+                    .map(row -> List.of(row[0], row[1], row[2]))
+                    .sorted(Comparator.comparing((List<Long> row) -> row.get(0)).thenComparing(row -> row.get(1)))
+                    .toList();
+        }
+
+        @Override
+        public Long findNextBookingId() {
+            return nextBookingId;
+        }
+
+        @Override
+        public long findWatermark() {
+            return bookings.size() + 1;
+        }
+
+        @Override
+        public void streamAllPairs(RowCallbackHandler handler) {
+            stream(bookerIds(0), handler);
+        }
+
+        @Override
+        public void streamPairsAffectedSince(long since, RowCallbackHandler handler) {
+            Set<Long> items = Set.copyOf(findItemIdsAffectedSince(since));
+            stream(bookings.stream()
+                    .filter(booking -> items.contains(booking[2]))
+                    .map(booking -> booking[1])
+                    .collect(Collectors.toSet()), handler);
+        }
+
+        @Override
+        public List<Long> findItemIdsAffectedSince(long since) {
+            Set<Long> bookers = bookerIds(since);
+            affected = bookings.stream()
+                    .filter(booking -> bookers.contains(booking[1]))
+                    .map(booking -> booking[2])
+                    .distinct()
+                    .toList();
+            return affected;
+        }
+
+        @Override
+        public void deleteAll() {
+            rows.clear();
+        }
+
+        @Override
+        public void deleteByItemIds(List<Long> itemIds) {
+            rows.removeIf(row -> itemIds.contains(row[0]));
+        }
+
+        @Override
+        public void insertAll(List<long[]> inserted, int batchSize) {
+            rows.addAll(inserted);
+        }
+
+        @Override
+        public void saveNextBookingId(long nextBookingId, LocalDateTime refreshed) {
+            this.nextBookingId = nextBookingId;
+        }
+
+        private Set<Long> bookerIds(long since) {
+            return bookings.stream()
+                    .filter(booking -> booking[0] >= since)
+                    .map(booking -> booking[1])
+                    .collect(Collectors.toSet());
+        }
+
+        private void stream(Set<Long> bookerIds, RowCallbackHandler handler) {
+            Set<List<Long>> pairs = new TreeSet<>(Comparator.comparing((List<Long> pair) -> pair.get(0))
+                    .thenComparing(pair -> pair.get(1)));
+            bookings.stream()
+                    .filter(booking -> bookerIds.contains(booking[1]))
+                    .forEach(booking -> pairs.add(List.of(booking[1], booking[2])));
+            ResultSet resultSet = mock(ResultSet.class);
+            try {
+                for (List<Long> pair : pairs) {
+                    when(resultSet.getLong(1)).thenReturn(pair.get(0));
+                    when(resultSet.getLong(2)).thenReturn(pair.get(1));
+                    handler.processRow(resultSet);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntHashMapTest {
+
+    @Test
+    void keepsEveryKeyAcrossResizes() {
+        LongIntHashMap map = new LongIntHashMap(1);
+
+        for (long key = -500; key < 500; key++) {
+            map.addTo(key * 7919, (int) key);
+        }
+
+        assertThat(map.size()).isEqualTo(1000);
+        for (long key = -500; key < 500; key++) {
+            assertThat(map.get(key * 7919, Integer.MIN_VALUE)).isEqualTo((int) key);
+        }
+        assertThat(map.get(1, -1)).isEqualTo(-1);
+    }
+
+    @Test
+    void addToAccumulatesAndPutIfAbsentKeepsTheFirstValue() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        map.addTo(CoBookingTask.pair(1, 2), 1);
+        map.addTo(CoBookingTask.pair(1, 2), 2);
+        map.addTo(CoBookingTask.pair(2, 1), 5);
+
+        assertThat(map.putIfAbsent(7L, 0)).isEqualTo(0);
+        assertThat(map.putIfAbsent(7L, 1)).isEqualTo(0);
+        assertThat(map.get(CoBookingTask.pair(1, 2), 0)).isEqualTo(3);
+        assertThat(map.get(CoBookingTask.pair(2, 1), 0)).isEqualTo(5);
+        assertThat(map.size()).isEqualTo(3);
+    }
+
+    @Test
+    void addAllSumsOverlappingKeysAndGrowsTheTarget() {
+        LongIntHashMap target = new LongIntHashMap(1);
+        LongIntHashMap other = new LongIntHashMap(1);
+        for (long key = 0; key < 100; key++) {
+            target.addTo(key, 1);
+        }
+        for (long key = 50; key < 300; key++) {
+            other.addTo(key, 10);
+        }
+
+        target.addAll(other);
+
+        Map<Long, Integer> entries = new HashMap<>();
+        target.forEach(entries::put);
+        assertThat(target.size()).isEqualTo(300);
+        assertThat(entries).hasSize(300);
+        assertThat(entries).containsEntry(0L, 1).containsEntry(49L, 1).containsEntry(50L, 11)
+                .containsEntry(99L, 11).containsEntry(100L, 10).containsEntry(299L, 10);
+        assertThat(other.size()).isEqualTo(250);
+    }
+}
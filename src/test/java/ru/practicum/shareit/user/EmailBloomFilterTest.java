@@ -0,0 +1,76 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailBloomFilterTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EmailBloomFilter filter = new EmailBloomFilter(userRepository,
+            mock(PlatformTransactionManager.class), 64, 0.01, meterRegistry);
+
+    @Test
+    void queriesTheRepositoryUntilTheFirstRebuild() {
+        when(userRepository.existsByEmail("user@mail.ru")).thenReturn(true);
+
+        assertThat(filter.isTaken("user@mail.ru")).isTrue();
+        assertThat(filter.isTaken("other@mail.ru")).isFalse();
+        assertThat(checks("queried")).isEqualTo(2);
+    }
+
+    @Test
+    void skipsTheRepositoryForEmailsOutsideTheFilter() {
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("user@mail.ru", "owner@mail.ru"));
+        when(userRepository.existsByEmail("user@mail.ru")).thenReturn(true);
+        filter.rebuild();
+
+        assertThat(filter.isTaken("user@mail.ru")).isTrue();
+        assertThat(filter.isTaken("absent@mail.ru")).isFalse();
+        verify(userRepository, never()).existsByEmail("absent@mail.ru");
+        assertThat(checks("skipped")).isEqualTo(1);
+        assertThat(meterRegistry.get("shareit.user.email.filter.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void addedEmailsAreCheckedAgainstTheRepository() {
+        when(userRepository.streamAllEmails()).thenReturn(Stream.empty());
+        filter.rebuild();
+
+        filter.add("new@mail.ru");
+
+        assertThat(filter.isTaken("new@mail.ru")).isFalse();
+        verify(userRepository).existsByEmail("new@mail.ru");
+    }
+
+    @Test
+    void emailsAddedDuringRebuildSurviveTheSwap() {
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("user@mail.ru"));
+        filter.rebuild();
+        doAnswer(invocation -> {
+            filter.add("late@mail.ru");
+            return Stream.of("user@mail.ru");
+        }).when(userRepository).streamAllEmails();
+        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+
+        filter.rebuild();
+
+        assertThat(filter.isTaken("late@mail.ru")).isTrue();
+        verify(userRepository).existsByEmail("late@mail.ru");
+        assertThat(checks("skipped")).isZero();
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("shareit.user.email.checks").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void keepsEveryValueAcrossGrowthStages() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(64, 0.01);
+
+        for (int i = 0; i < 20_000; i++) {
+            filter.add("user" + i + "@mail.ru");
+            if (Integer.bitCount(i + 1) == 1) {
+                for (int j = 0; j <= i; j++) {
+                    assertThat(filter.mightContain("user" + j + "@mail.ru")).isTrue();
+                }
+            }
+        }
+
+        assertThat(filter.size()).isEqualTo(20_000);
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(filter.mightContain("user" + i + "@mail.ru")).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysWithinTheBoundAfterGrowth() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(64, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.add("user" + i + "@mail.ru");
+        }
+
+        int falsePositives = 0;
+        int probes = 200_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent" + i + "@mail.ru")) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / probes).isLessThan(0.01);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(0, 0.01);
+
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain("user@mail.ru")).isFalse();
+        assertThat(filter.size()).isZero();
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.invalidation.InvalidationBus;
+import ru.practicum.shareit.item.ItemGeoIndex;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchCache;
+import ru.practicum.shareit.item.ItemSuggestIndex;
+import ru.practicum.shareit.item.ItemViewSingleFlight;
+import ru.practicum.shareit.shard.UserReplicator;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final EmailBloomFilter emailBloomFilter = mock(EmailBloomFilter.class);
+    private final UserReplicator userReplicator = mock(UserReplicator.class);
+    private final UserService userService = new UserService(userRepository, new UserMapperImpl(),
+            mock(ItemRepository.class), mock(ItemSearchCache.class), mock(ItemViewSingleFlight.class),
+            mock(ItemSuggestIndex.class), mock(ItemGeoIndex.class), mock(InvalidationBus.class), emailBloomFilter,
+            userReplicator);
+
+    @Test
+    void createTranslatesTheEmailConstraintIntoConflict() {
+        when(userRepository.saveAndFlush(any())).thenThrow(violation(
+                "Unique index or primary key violation: \"PUBLIC.UQ_USER_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL)\""));
+
+        assertThatThrownBy(() -> userService.createUser(new UserDto(null, "Иван", "ivan@mail.ru")))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Email уже занят");
+        verify(emailBloomFilter, never()).add(anyString());
+        verify(userReplicator, never()).replicate(any());
+    }
+
+    @Test
+    void updateTranslatesTheEmailConstraintIntoConflict() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User(1L, "old@mail.ru", "Иван", false)));
+        when(userRepository.saveAndFlush(any())).thenThrow(violation(
+                "duplicate key value violates unique constraint \"uq_user_email\""));
+
+        assertThatThrownBy(() -> userService.updateUser(1L, new UserDto(null, null, "taken@mail.ru")))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Этот email уже используется другим пользователем");
+        verify(emailBloomFilter, never()).add(anyString());
+    }
+
+    @Test
+    void otherConstraintViolationsAreRethrown() {
+        DataIntegrityViolationException violation = violation(
+                "NULL not allowed for column \"NAME\"");
+        when(userRepository.saveAndFlush(any())).thenThrow(violation);
+
+        assertThatThrownBy(() -> userService.createUser(new UserDto(null, null, "ivan@mail.ru")))
+                .isSameAs(violation);
+    }
+
+    @Test
+    void filterRejectionSkipsTheInsert() {
+        when(emailBloomFilter.isTaken("ivan@mail.ru")).thenReturn(true);
+
+        assertThatThrownBy(() -> userService.createUser(new UserDto(null, "Иван", "ivan@mail.ru")))
+                .isInstanceOf(ConflictException.class);
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void savedEmailIsAddedToTheFilter() {
+        when(userRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(5L);
+            return user;
+        });
+
+        UserDto created = userService.createUser(new UserDto(null, "Иван", "ivan@mail.ru"));
+
+        assertThat(created.getId()).isEqualTo(5L);
+        verify(emailBloomFilter).add("ivan@mail.ru");
+        verify(userReplicator).replicate(any());
+    }
+
+    private static DataIntegrityViolationException violation(String message) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException(message));
+    }
+}